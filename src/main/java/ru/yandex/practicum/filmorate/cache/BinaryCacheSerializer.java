@@ -0,0 +1,463 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import ru.yandex.practicum.filmorate.dto.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+@Slf4j
+public class BinaryCacheSerializer implements RedisSerializer<Object> {
+    static final byte VERSION = 2;
+    private static final byte MIN_VERSION = 1;
+    private static final byte COMPRESSED = 1;
+    private static final int HEADER_SIZE = 2;
+    private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+
+    private static final int NULL = 0;
+    private static final int NULL_VALUE = 1;
+    private static final int LIST = 2;
+    private static final int SET = 3;
+    private static final int FILM = 4;
+    private static final int USER = 5;
+    private static final int REVIEW = 6;
+    private static final int GENRE = 7;
+    private static final int MPA = 8;
+    private static final int DIRECTOR = 9;
+    private static final int STRING = 10;
+    private static final int LONG = 11;
+    private static final int SERIALIZED = 12;
+    private static final int REFRESHABLE = 13;
+    private static final int MISS = 14;
+
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+    private final RedisSerializer<Object> fallback = RedisSerializer.java();
+
+    public BinaryCacheSerializer(int compressionThreshold) {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressionThreshold = compressionThreshold;
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        Writer out = new Writer();
+        out.writeByte(VERSION);
+        out.writeByte(0);
+        writeValue(out, value);
+        int length = out.size() - HEADER_SIZE;
+        if (compressionThreshold <= 0 || length < compressionThreshold) {
+            return out.toByteArray();
+        }
+        byte[] compressed = new byte[compressor.maxCompressedLength(length)];
+        int compressedLength = compressor.compress(out.buffer(), HEADER_SIZE, length, compressed, 0,
+                compressed.length);
+        if (compressedLength >= length) {
+            return out.toByteArray();
+        }
+        Writer result = new Writer();
+        result.writeByte(VERSION);
+        result.writeByte(COMPRESSED);
+        result.writeVarLong(length);
+        result.writeBytes(compressed, compressedLength);
+        return result.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == JDK_STREAM_MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes[0] < MIN_VERSION || bytes[0] > VERSION) {
+            log.debug("Пропущено значение кэша неизвестной версии {}", bytes[0]);
+            return null;
+        }
+        try {
+            Reader in = new Reader(bytes, HEADER_SIZE);
+            if ((bytes[1] & COMPRESSED) != 0) {
+                int length = (int) in.readVarLong();
+                in = new Reader(decompressor.decompress(bytes, in.position(), length), 0);
+            }
+            return readValue(in);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Не удалось прочитать значение кэша", e);
+        }
+    }
+
+    private void writeValue(Writer out, Object value) {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof NullValue) {
+            out.writeByte(NULL_VALUE);
+        } else if (value instanceof FilmDto film) {
+            out.writeByte(FILM);
+            writeFilm(out, film);
+        } else if (value instanceof UserDto user) {
+            out.writeByte(USER);
+            writeUser(out, user);
+        } else if (value instanceof ReviewDto review) {
+            out.writeByte(REVIEW);
+            writeReview(out, review);
+        } else if (value instanceof GenreDto genre) {
+            out.writeByte(GENRE);
+            writeGenre(out, genre);
+        } else if (value instanceof MpaRatingDto mpa) {
+            out.writeByte(MPA);
+            writeMpa(out, mpa);
+        } else if (value instanceof DirectorDto director) {
+            out.writeByte(DIRECTOR);
+            writeDirector(out, director);
+        } else if (value instanceof RefreshableValue refreshable) {
+            out.writeByte(REFRESHABLE);
+            out.writeNullableLong(refreshable.loadedAt());
+            writeValue(out, refreshable.value());
+        } else if (value instanceof CachedMiss miss) {
+            out.writeByte(MISS);
+            out.writeString(miss.message());
+            out.writeNullableLong(miss.expiresAt());
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            writeCollection(out, list, this::writeValue);
+        } else if (value instanceof Set<?> set) {
+            out.writeByte(SET);
+            writeCollection(out, set, this::writeValue);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            out.writeString(string);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeNullableLong(number);
+        } else {
+            out.writeByte(SERIALIZED);
+            byte[] serialized = fallback.serialize(value);
+            out.writeVarLong(serialized.length);
+            out.writeBytes(serialized, serialized.length);
+        }
+    }
+
+    private Object readValue(Reader in) {
+        int type = in.readByte();
+        return switch (type) {
+            case NULL -> null;
+            case NULL_VALUE -> NullValue.INSTANCE;
+            case FILM -> readFilm(in);
+            case USER -> readUser(in);
+            case REVIEW -> readReview(in);
+            case GENRE -> readGenre(in);
+            case MPA -> readMpa(in);
+            case DIRECTOR -> readDirector(in);
+            case LIST -> readCollection(in, ArrayList::new, this::readValue);
+            case SET -> readCollection(in, LinkedHashSet::new, this::readValue);
+            case STRING -> in.readString();
+            case LONG -> in.readNullableLong();
+            case SERIALIZED -> fallback.deserialize(in.readBytes((int) in.readVarLong()));
+            case REFRESHABLE -> {
+                long loadedAt = in.readNullableLong();
+                yield new RefreshableValue(readValue(in), loadedAt);
+            }
+            case MISS -> new CachedMiss(in.readString(), in.readNullableLong());
+            default -> throw new IllegalStateException("Неизвестный тип значения кэша: " + type);
+        };
+    }
+
+    private static void writeFilm(Writer out, FilmDto film) {
+        out.writeNullableLong(film.getId());
+        out.writeString(film.getName());
+        out.writeString(film.getDescription());
+        out.writeNullableDate(film.getReleaseDate());
+        out.writeNullableLong(film.getDuration() != null ? film.getDuration().longValue() : null);
+        out.writeBoolean(film.getMpa() != null);
+        if (film.getMpa() != null) {
+            writeMpa(out, film.getMpa());
+        }
+        writeCollection(out, film.getGenres(), BinaryCacheSerializer::writeGenre);
+        out.writeNullableDouble(film.getRate());
+        writeCollection(out, film.getDirectors(), BinaryCacheSerializer::writeDirector);
+    }
+
+    private static FilmDto readFilm(Reader in) {
+        FilmDto film = new FilmDto();
+        film.setId(in.readNullableLong());
+        film.setName(in.readString());
+        film.setDescription(in.readString());
+        film.setReleaseDate(in.readNullableDate());
+        Long duration = in.readNullableLong();
+        film.setDuration(duration != null ? duration.intValue() : null);
+        film.setMpa(in.readBoolean() ? readMpa(in) : null);
+        film.setGenres(readCollection(in, LinkedHashSet::new, BinaryCacheSerializer::readGenre));
+        film.setRate(in.readNullableDouble());
+        film.setDirectors(readCollection(in, LinkedHashSet::new, BinaryCacheSerializer::readDirector));
+        return film;
+    }
+
+    private static void writeUser(Writer out, UserDto user) {
+        out.writeNullableLong(user.getId());
+        out.writeString(user.getEmail());
+        out.writeString(user.getName());
+        out.writeString(user.getLogin());
+        out.writeNullableDate(user.getBirthday());
+    }
+
+    private static UserDto readUser(Reader in) {
+        UserDto user = new UserDto();
+        user.setId(in.readNullableLong());
+        user.setEmail(in.readString());
+        user.setName(in.readString());
+        user.setLogin(in.readString());
+        user.setBirthday(in.readNullableDate());
+        return user;
+    }
+
+    private static void writeReview(Writer out, ReviewDto review) {
+        out.writeNullableLong(review.getReviewId());
+        out.writeString(review.getContent());
+        out.writeNullableBoolean(review.getIsPositive());
+        out.writeNullableLong(review.getFilmId());
+        out.writeNullableLong(review.getUserId());
+        out.writeNullableLong(review.getUseful());
+    }
+
+    private static ReviewDto readReview(Reader in) {
+        ReviewDto review = new ReviewDto();
+        review.setReviewId(in.readNullableLong());
+        review.setContent(in.readString());
+        review.setIsPositive(in.readNullableBoolean());
+        review.setFilmId(in.readNullableLong());
+        review.setUserId(in.readNullableLong());
+        review.setUseful(in.readNullableLong());
+        return review;
+    }
+
+    private static void writeGenre(Writer out, GenreDto genre) {
+        out.writeNullableLong(genre.getId());
+        out.writeString(genre.getName());
+    }
+
+    private static GenreDto readGenre(Reader in) {
+        GenreDto genre = new GenreDto();
+        genre.setId(in.readNullableLong());
+        genre.setName(in.readString());
+        return genre;
+    }
+
+    private static void writeMpa(Writer out, MpaRatingDto mpa) {
+        out.writeNullableLong(mpa.getId());
+        out.writeString(mpa.getName());
+    }
+
+    private static MpaRatingDto readMpa(Reader in) {
+        MpaRatingDto mpa = new MpaRatingDto();
+        mpa.setId(in.readNullableLong());
+        mpa.setName(in.readString());
+        return mpa;
+    }
+
+    private static void writeDirector(Writer out, DirectorDto director) {
+        out.writeNullableLong(director.getId());
+        out.writeString(director.getName());
+    }
+
+    private static DirectorDto readDirector(Reader in) {
+        DirectorDto director = new DirectorDto();
+        director.setId(in.readNullableLong());
+        director.setName(in.readString());
+        return director;
+    }
+
+    private static <T> void writeCollection(Writer out, Collection<T> values, BiConsumer<Writer, T> writer) {
+        if (values == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(values.size() + 1L);
+        values.forEach(value -> writer.accept(out, value));
+    }
+
+    private static <T, C extends Collection<T>> C readCollection(Reader in, Function<Integer, C> factory,
+                                                                  Function<Reader, T> reader) {
+        int size = (int) in.readVarLong() - 1;
+        if (size < 0) {
+            return null;
+        }
+        C values = factory.apply(size);
+        for (int i = 0; i < size; i++) {
+            values.add(reader.apply(in));
+        }
+        return values;
+    }
+
+    private static final class Writer {
+        private byte[] buffer = new byte[256];
+        private int size;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, 0, buffer, size, length);
+            size += length;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeNullableLong(Long value) {
+            writeVarLong(value != null ? ((value << 1) ^ (value >> 63)) + 1 : 0);
+        }
+
+        void writeNullableDate(LocalDate value) {
+            writeNullableLong(value != null ? value.toEpochDay() : null);
+        }
+
+        void writeNullableDouble(Double value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                long bits = Double.doubleToLongBits(value);
+                ensureCapacity(Long.BYTES);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    buffer[size++] = (byte) (bits >>> shift);
+                }
+            }
+        }
+
+        void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        void writeNullableBoolean(Boolean value) {
+            writeByte(value == null ? 0 : value ? 2 : 1);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            writeBytes(bytes, bytes.length);
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int position() {
+            return position;
+        }
+
+        int readByte() {
+            return buffer[position++] & 0xFF;
+        }
+
+        byte[] readBytes(int length) {
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Слишком длинное число в значении кэша");
+        }
+
+        Long readNullableLong() {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            long zigzag = encoded - 1;
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        LocalDate readNullableDate() {
+            Long epochDay = readNullableLong();
+            return epochDay != null ? LocalDate.ofEpochDay(epochDay) : null;
+        }
+
+        Double readNullableDouble() {
+            if (!readBoolean()) {
+                return null;
+            }
+            long bits = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                bits = (bits << 8) | readByte();
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        Boolean readNullableBoolean() {
+            int value = readByte();
+            return value == 0 ? null : value == 2;
+        }
+
+        String readString() {
+            int length = (int) readVarLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
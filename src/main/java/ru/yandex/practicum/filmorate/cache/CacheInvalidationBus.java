@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.function.BiConsumer;
+
+public interface CacheInvalidationBus {
+    void publish(String cacheName, String key);
+
+    void subscribe(BiConsumer<String, String> listener);
+}
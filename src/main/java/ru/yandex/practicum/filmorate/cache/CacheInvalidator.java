@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.event.*;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidator {
+    private final CacheManager cacheManager;
+    private final CacheTagRegistry registry;
+
+    public int invalidate(Collection<String> tags) {
+        Set<String> entries = registry.invalidate(tags);
+        for (String entry : entries) {
+            int separator = entry.indexOf(TaggingCache.ENTRY_SEPARATOR);
+            Cache cache = cacheManager.getCache(entry.substring(0, separator));
+            if (cache != null) {
+                cache.evict(entry.substring(separator + TaggingCache.ENTRY_SEPARATOR.length()));
+            }
+        }
+        log.debug("Инвалидация кэша по тегам {}: удалено {} записей", tags, entries.size());
+        return entries.size();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmSaved(FilmSavedEvent event) {
+        Film film = event.film();
+        List<String> tags = new ArrayList<>(List.of(CacheTags.film(film.getId()), CacheTags.FILMS, CacheTags.RANKING));
+        if (film.getDirectors() != null) {
+            film.getDirectors().forEach(director -> tags.add(CacheTags.directorFilms(director.getId())));
+        }
+        invalidate(tags);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        invalidate(List.of(CacheTags.film(event.filmId()), CacheTags.FILMS, CacheTags.RANKING));
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikeChanged(LikeChangedEvent event) {
+        invalidate(List.of(CacheTags.film(event.filmId()), CacheTags.userLikes(event.userId()), CacheTags.RANKING));
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatsRebuilt(FilmStatsRebuiltEvent event) {
+        List<String> tags = new ArrayList<>(List.of(CacheTags.FILMS, CacheTags.RANKING));
+        event.filmIds().forEach(filmId -> tags.add(CacheTags.film(filmId)));
+        invalidate(tags);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectorSaved(DirectorSavedEvent event) {
+        invalidate(List.of(CacheTags.director(event.director().getId()), CacheTags.DIRECTORS));
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectorDeleted(DirectorDeletedEvent event) {
+        invalidate(List.of(CacheTags.director(event.directorId()), CacheTags.directorFilms(event.directorId()),
+                CacheTags.DIRECTORS));
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSaved(UserSavedEvent event) {
+        invalidate(List.of(CacheTags.user(event.userId()), CacheTags.USERS));
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidate(List.of(CacheTags.user(event.userId()), CacheTags.userLikes(event.userId()), CacheTags.USERS,
+                CacheTags.RANKING));
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        invalidate(List.of(CacheTags.review(event.reviewId()), CacheTags.REVIEWS));
+    }
+}
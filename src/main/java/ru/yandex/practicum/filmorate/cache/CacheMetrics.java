@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CacheMetrics {
+    private static final int LATENCY_SAMPLES = 1024;
+    private static final int SIZE_SAMPLE_RATE = 8;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final AtomicLong loads = new AtomicLong();
+    private final LongAdder sizedValues = new LongAdder();
+    private final LongAdder sizedBytes = new LongAdder();
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long recordedLatencies;
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    boolean startLoad() {
+        return loads.getAndIncrement() % SIZE_SAMPLE_RATE == 0;
+    }
+
+    synchronized void recordLoad(long nanos) {
+        latencies[(int) (recordedLatencies++ % LATENCY_SAMPLES)] = nanos;
+    }
+
+    void recordLoadFailure() {
+        loadFailures.increment();
+    }
+
+    void recordSize(int bytes) {
+        sizedValues.increment();
+        sizedBytes.add(bytes);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getLoads() {
+        return loads.get();
+    }
+
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    public long getAverageSize() {
+        long count = sizedValues.sum();
+        return count > 0 ? sizedBytes.sum() / count : 0;
+    }
+
+    public double[] latencyPercentilesMillis(double... quantiles) {
+        long[] samples;
+        synchronized (this) {
+            samples = Arrays.copyOf(latencies, (int) Math.min(recordedLatencies, LATENCY_SAMPLES));
+        }
+        Arrays.sort(samples);
+        double[] result = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length && samples.length > 0; i++) {
+            int index = (int) Math.min(samples.length - 1, Math.floor(quantiles[i] * samples.length));
+            result[i] = samples[index] / 1e6;
+        }
+        return result;
+    }
+}
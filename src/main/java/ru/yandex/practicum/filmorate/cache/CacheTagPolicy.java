@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import ru.yandex.practicum.filmorate.dto.DirectorDto;
+import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.ReviewDto;
+import ru.yandex.practicum.filmorate.dto.UserDto;
+
+import java.util.*;
+import java.util.function.Function;
+
+public class CacheTagPolicy {
+    private static final Map<String, String> COLLECTION_TAGS = Map.of(
+            "films", CacheTags.FILMS,
+            "popularFilms", CacheTags.RANKING,
+            "users", CacheTags.USERS,
+            "directors", CacheTags.DIRECTORS,
+            "reviews", CacheTags.REVIEWS);
+    private static final Map<String, Function<Long, String>> ENTITY_TAGS = Map.of(
+            "filmById", CacheTags::film,
+            "users", CacheTags::user,
+            "directors", CacheTags::director,
+            "reviews", CacheTags::review);
+
+    public Set<String> tagsOf(String cacheName, Object key, Object storedValue) {
+        Object value = storedValue instanceof RefreshableValue refreshable ? refreshable.value() : storedValue;
+        Set<String> tags = new HashSet<>();
+        collect(value, tags);
+        String collectionTag = COLLECTION_TAGS.get(cacheName);
+        if (collectionTag != null && value instanceof Collection<?>) {
+            tags.add(collectionTag);
+        }
+        Function<Long, String> entityTag = ENTITY_TAGS.get(cacheName);
+        if (entityTag != null && value instanceof CachedMiss && key instanceof Long id) {
+            tags.add(entityTag.apply(id));
+        }
+        boolean miss = value instanceof CachedMiss;
+        switch (cacheName) {
+            case "commonFilms" -> ((List<?>) key).forEach(userId -> {
+                tags.add(CacheTags.userLikes((Long) userId));
+                if (miss) {
+                    tags.add(CacheTags.user((Long) userId));
+                }
+            });
+            case "recommendations" -> {
+                Long userId = (Long) ((List<?>) key).get(0);
+                tags.add(CacheTags.userLikes(userId));
+                if (miss) {
+                    tags.add(CacheTags.user(userId));
+                }
+            }
+            case "filmsByDirector" -> {
+                Long directorId = (Long) ((List<?>) key).get(0);
+                tags.add(CacheTags.directorFilms(directorId));
+                if (miss) {
+                    tags.add(CacheTags.director(directorId));
+                }
+            }
+            default -> {
+            }
+        }
+        return tags;
+    }
+
+    private static void collect(Object value, Set<String> tags) {
+        if (value instanceof Collection<?> values) {
+            values.forEach(element -> collect(element, tags));
+        } else if (value instanceof Optional<?> optional) {
+            optional.ifPresent(element -> collect(element, tags));
+        } else if (value instanceof FilmDto film) {
+            tags.add(CacheTags.film(film.getId()));
+            if (film.getDirectors() != null) {
+                film.getDirectors().forEach(director -> collect(director, tags));
+            }
+        } else if (value instanceof DirectorDto director) {
+            tags.add(CacheTags.director(director.getId()));
+        } else if (value instanceof UserDto user) {
+            tags.add(CacheTags.user(user.getId()));
+        } else if (value instanceof ReviewDto review) {
+            tags.add(CacheTags.review(review.getReviewId()));
+        }
+    }
+}
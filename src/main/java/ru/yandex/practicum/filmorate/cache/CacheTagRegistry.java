@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface CacheTagRegistry {
+    void register(String entry, Collection<String> tags);
+
+    Set<String> invalidate(Collection<String> tags);
+
+    long generation();
+
+    boolean invalidatedSince(Collection<String> tags, long generation);
+}
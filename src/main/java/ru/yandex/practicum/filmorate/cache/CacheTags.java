@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.cache;
+
+public final class CacheTags {
+    public static final String FILMS = "films";
+    public static final String RANKING = "ranking";
+    public static final String USERS = "users";
+    public static final String DIRECTORS = "directors";
+    public static final String REVIEWS = "reviews";
+
+    private CacheTags() {
+    }
+
+    public static String film(long filmId) {
+        return "film:" + filmId;
+    }
+
+    public static String user(long userId) {
+        return "user:" + userId;
+    }
+
+    public static String userLikes(long userId) {
+        return "user-likes:" + userId;
+    }
+
+    public static String director(long directorId) {
+        return "director:" + directorId;
+    }
+
+    public static String directorFilms(long directorId) {
+        return "director-films:" + directorId;
+    }
+
+    public static String review(long reviewId) {
+        return "review:" + reviewId;
+    }
+}
@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.io.Serializable;
+import java.time.Clock;
+
+public record CachedMiss(String message, long expiresAt) implements Serializable {
+    public boolean isExpired(Clock clock) {
+        return clock.millis() >= expiresAt;
+    }
+}
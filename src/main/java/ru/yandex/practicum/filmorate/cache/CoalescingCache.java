@@ -0,0 +1,259 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import ru.yandex.practicum.filmorate.config.CacheRefreshProperties;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.ToIntFunction;
+
+@Slf4j
+public class CoalescingCache implements Cache {
+    private final Cache delegate;
+    private final Duration notFoundTtl;
+    private final CacheRefreshProperties.Policy refreshPolicy;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+    private final CacheMetrics metrics;
+    private final ToIntFunction<Object> sizer;
+    private final long maxEntryBytes;
+    private final Map<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+    public CoalescingCache(Cache delegate, Duration notFoundTtl, CacheRefreshProperties.Policy refreshPolicy,
+                           Executor refreshExecutor, Clock clock) {
+        this(delegate, notFoundTtl, refreshPolicy, refreshExecutor, clock, new CacheMetrics(), null, 0);
+    }
+
+    public CoalescingCache(Cache delegate, Duration notFoundTtl, CacheRefreshProperties.Policy refreshPolicy,
+                           Executor refreshExecutor, Clock clock, CacheMetrics metrics,
+                           ToIntFunction<Object> sizer, long maxEntryBytes) {
+        this.delegate = delegate;
+        this.notFoundTtl = notFoundTtl;
+        this.refreshPolicy = refreshPolicy;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        this.metrics = metrics;
+        this.sizer = sizer;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = delegate.get(key);
+        return cached != null && !(cached.get() instanceof CachedMiss) ? unwrap(key, cached, null) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(String.format("Значение в кэше %s по ключу %s не является %s",
+                    getName(), key, type.getName()));
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached;
+        try {
+            cached = lookup(key, valueLoader);
+        } catch (NotFoundException e) {
+            metrics.recordHit();
+            throw e;
+        }
+        if (cached != null) {
+            metrics.recordHit();
+            return (T) cached.get();
+        }
+        metrics.recordMiss();
+        String loadKey = String.valueOf(key);
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = loads.putIfAbsent(loadKey, load);
+        if (running != null) {
+            return (T) await(running);
+        }
+        try {
+            cached = lookup(key, null);
+            Object value = cached != null ? cached.get() : load(key, valueLoader);
+            load.complete(value);
+            return (T) value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(loadKey, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private ValueWrapper lookup(Object key, Callable<?> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null && cached.get() instanceof CachedMiss miss) {
+            if (miss.isExpired(clock)) {
+                return null;
+            }
+            throw new NotFoundException(miss.message());
+        }
+        return unwrap(key, cached, valueLoader);
+    }
+
+    private ValueWrapper unwrap(Object key, ValueWrapper cached, Callable<?> valueLoader) {
+        if (cached == null || !(cached.get() instanceof RefreshableValue refreshable)) {
+            return cached;
+        }
+        long age = clock.millis() - refreshable.loadedAt();
+        if (refreshPolicy != null && refreshPolicy.isExpired(age)) {
+            return null;
+        }
+        if (refreshPolicy != null && valueLoader != null && refreshPolicy.shouldRefresh(age)) {
+            refresh(key, valueLoader);
+        }
+        return new SimpleValueWrapper(refreshable.value());
+    }
+
+    private void refresh(Object key, Callable<?> valueLoader) {
+        String loadKey = String.valueOf(key);
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        if (loads.putIfAbsent(loadKey, load) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load.complete(load(key, valueLoader));
+                } catch (RuntimeException | Error e) {
+                    log.warn("Не удалось обновить запись кэша {} по ключу {}: {}", getName(), key, e.getMessage());
+                    load.completeExceptionally(e);
+                } finally {
+                    loads.remove(loadKey, load);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loads.remove(loadKey, load);
+            load.completeExceptionally(e);
+            log.debug("Очередь обновления кэша заполнена, запись {} по ключу {} обновится позже", getName(), key);
+        }
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        boolean sampleSize = metrics.startLoad() || maxEntryBytes > 0;
+        long generation = delegate instanceof TaggingCache tagging ? tagging.generation() : 0L;
+        long loadedAt = clock.millis();
+        long startedAt = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+            metrics.recordLoad(System.nanoTime() - startedAt);
+        } catch (Exception e) {
+            metrics.recordLoadFailure();
+            NotFoundException notFound = findNotFound(e);
+            if (notFound != null && !notFoundTtl.isZero() && !notFoundTtl.isNegative()) {
+                store(key, new CachedMiss(notFound.getMessage(), clock.millis() + notFoundTtl.toMillis()), generation);
+            }
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        Object entry = refreshPolicy != null ? new RefreshableValue(value, loadedAt) : value;
+        if (sampleSize && sizer != null) {
+            int size = sizer.applyAsInt(entry);
+            metrics.recordSize(size);
+            if (maxEntryBytes > 0 && size > maxEntryBytes) {
+                log.debug("Запись кэша {} по ключу {} занимает {} байт и не будет сохранена", getName(), key, size);
+                delegate.evict(key);
+                return value;
+            }
+        }
+        store(key, entry, generation);
+        return value;
+    }
+
+    private void store(Object key, Object entry, long generation) {
+        if (delegate instanceof TaggingCache tagging) {
+            tagging.put(key, entry, generation);
+        } else {
+            delegate.put(key, entry);
+        }
+    }
+
+    private static NotFoundException findNotFound(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NotFoundException notFound) {
+                return notFound;
+            }
+        }
+        return null;
+    }
+
+    private static Object await(CompletableFuture<Object> load) {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание загрузки значения кэша прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCache;
+import ru.yandex.practicum.filmorate.config.CacheRefreshProperties;
+import ru.yandex.practicum.filmorate.config.CacheSpecProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.ToIntFunction;
+
+public class CoalescingCacheManager implements DelegatingCacheManager, DisposableBean {
+    private final CacheManager delegate;
+    private final Duration notFoundTtl;
+    private final CacheRefreshProperties refreshProperties;
+    private final CacheSpecProperties specProperties;
+    private final ToIntFunction<Object> sizer;
+    private final ExecutorService refreshExecutor;
+    private final Clock clock;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public CoalescingCacheManager(CacheManager delegate, Duration notFoundTtl, CacheRefreshProperties refreshProperties,
+                                  ExecutorService refreshExecutor, Clock clock) {
+        this(delegate, notFoundTtl, refreshProperties, new CacheSpecProperties(), null, refreshExecutor, clock);
+    }
+
+    public CoalescingCacheManager(CacheManager delegate, Duration notFoundTtl, CacheRefreshProperties refreshProperties,
+                                  CacheSpecProperties specProperties, ToIntFunction<Object> sizer,
+                                  ExecutorService refreshExecutor, Clock clock) {
+        this.delegate = delegate;
+        this.notFoundTtl = notFoundTtl;
+        this.refreshProperties = refreshProperties;
+        this.specProperties = specProperties;
+        this.sizer = sizer;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        if (!specProperties.isEnabled(name)) {
+            return caches.computeIfAbsent(name, NoOpCache::new);
+        }
+        Cache target = delegate.getCache(name);
+        return target != null
+                ? caches.computeIfAbsent(name, key -> new CoalescingCache(target, notFoundTtl,
+                        refreshProperties.getCaches().get(name), refreshExecutor, clock, new CacheMetrics(), sizer,
+                        specProperties.resolveMaxEntryBytes(name)))
+                : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @Override
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+
+    public Map<String, Cache> getCaches() {
+        return Map.copyOf(caches);
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.cache.CacheManager;
+
+public interface DelegatingCacheManager extends CacheManager {
+    CacheManager getDelegate();
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InMemoryCacheTagRegistry implements CacheTagRegistry {
+    private final Map<String, Set<String>> entriesByTag = new ConcurrentHashMap<>();
+    private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Override
+    public void register(String entry, Collection<String> tags) {
+        for (String tag : tags) {
+            entriesByTag.computeIfAbsent(tag, key -> ConcurrentHashMap.newKeySet()).add(entry);
+        }
+    }
+
+    @Override
+    public Set<String> invalidate(Collection<String> tags) {
+        long current = generation.incrementAndGet();
+        Set<String> entries = new HashSet<>();
+        for (String tag : tags) {
+            invalidatedAt.put(tag, current);
+            Set<String> tagged = entriesByTag.remove(tag);
+            if (tagged != null) {
+                entries.addAll(tagged);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public long generation() {
+        return generation.get();
+    }
+
+    @Override
+    public boolean invalidatedSince(Collection<String> tags, long generation) {
+        for (String tag : tags) {
+            if (invalidatedAt.getOrDefault(tag, 0L) > generation) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.cache.Cache.ValueWrapper;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+class LocalCacheStore {
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<String, Entry> entries;
+    private long generation;
+
+    LocalCacheStore(int maxSize, Duration ttl, LongSupplier ticker) {
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized ValueWrapper get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ticker.getAsLong() - entry.expiresAt() >= 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    synchronized void put(String key, ValueWrapper value) {
+        entries.put(key, new Entry(value, ticker.getAsLong() + ttlNanos));
+    }
+
+    synchronized void put(String key, ValueWrapper value, long expectedGeneration) {
+        if (generation == expectedGeneration) {
+            put(key, value);
+        }
+    }
+
+    synchronized void evict(String key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(ValueWrapper value, long expiresAt) {
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+@Slf4j
+public class RedisCacheInvalidationBus implements CacheInvalidationBus {
+    private static final String SEPARATOR = "\n";
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer container;
+    private final ChannelTopic topic;
+
+    public RedisCacheInvalidationBus(StringRedisTemplate redisTemplate, RedisMessageListenerContainer container,
+                                     String channel) {
+        this.redisTemplate = redisTemplate;
+        this.container = container;
+        this.topic = new ChannelTopic(channel);
+    }
+
+    @Override
+    public void publish(String cacheName, String key) {
+        String message = String.join(SEPARATOR, nodeId, cacheName, key != null ? EVICT : CLEAR,
+                key != null ? key : "");
+        try {
+            redisTemplate.convertAndSend(topic.getTopic(), message);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось разослать инвалидацию кэша {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, String> listener) {
+        container.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+            if (parts.length < 4 || nodeId.equals(parts[0])) {
+                return;
+            }
+            listener.accept(parts[1], EVICT.equals(parts[2]) ? parts[3] : null);
+        }, topic);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class RedisCacheTagRegistry implements CacheTagRegistry {
+    private static final String TAGS_PREFIX = "cache-tags:";
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> POP_ALL = new DefaultRedisScript<>("""
+            local generation = redis.call('INCR', KEYS[1])
+            local count = (#KEYS - 1) / 2
+            local entries = {}
+            for i = 2, count + 1 do
+                for _, entry in ipairs(redis.call('SMEMBERS', KEYS[i])) do
+                    table.insert(entries, entry)
+                end
+                redis.call('DEL', KEYS[i])
+                redis.call('SET', KEYS[i + count], generation, 'PX', ARGV[1])
+            end
+            return entries
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final String keyPrefix;
+    private final String generationKey;
+    private final String invalidatedPrefix;
+
+    public RedisCacheTagRegistry(StringRedisTemplate redisTemplate, Duration ttl, String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.keyPrefix = (keyPrefix != null ? keyPrefix : "") + TAGS_PREFIX;
+        this.generationKey = this.keyPrefix + "generation";
+        this.invalidatedPrefix = this.keyPrefix + "invalidated:";
+    }
+
+    @Override
+    public void register(String entry, Collection<String> tags) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String tag : tags) {
+                stringConnection.sAdd(keyPrefix + tag, entry);
+                if (ttl != null && !ttl.isZero()) {
+                    stringConnection.pExpire(keyPrefix + tag, ttl.toMillis());
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> invalidate(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return Set.of();
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(generationKey);
+        tags.forEach(tag -> keys.add(keyPrefix + tag));
+        tags.forEach(tag -> keys.add(invalidatedPrefix + tag));
+        List<String> entries = redisTemplate.execute(POP_ALL, keys, String.valueOf(invalidationMarkerTtl()));
+        return entries != null ? new HashSet<>(entries) : Set.of();
+    }
+
+    @Override
+    public long generation() {
+        String generation = redisTemplate.opsForValue().get(generationKey);
+        return generation != null ? Long.parseLong(generation) : 0L;
+    }
+
+    @Override
+    public boolean invalidatedSince(Collection<String> tags, long generation) {
+        if (tags.isEmpty()) {
+            return false;
+        }
+        List<String> invalidated = redisTemplate.opsForValue()
+                .multiGet(tags.stream().map(tag -> invalidatedPrefix + tag).toList());
+        return invalidated != null && invalidated.stream()
+                .anyMatch(value -> value != null && Long.parseLong(value) > generation);
+    }
+
+    private long invalidationMarkerTtl() {
+        return ttl != null && !ttl.isZero() ? ttl.toMillis() : Duration.ofHours(1).toMillis();
+    }
+}
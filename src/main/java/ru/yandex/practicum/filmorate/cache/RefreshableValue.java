@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.io.Serializable;
+
+public record RefreshableValue(Object value, long loadedAt) implements Serializable {
+}
@@ -0,0 +1,124 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TaggingCache implements Cache {
+    static final String ENTRY_SEPARATOR = "::";
+
+    private final Cache delegate;
+    private final CacheTagRegistry registry;
+    private final CacheTagPolicy policy;
+
+    public TaggingCache(Cache delegate, CacheTagRegistry registry, CacheTagPolicy policy) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.policy = policy;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(keyOf(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(keyOf(key), type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long generation = registry.generation();
+        AtomicBoolean loaded = new AtomicBoolean();
+        T value = delegate.get(keyOf(key), () -> {
+            T loadedValue = valueLoader.call();
+            register(key, loadedValue);
+            loaded.set(true);
+            return loadedValue;
+        });
+        if (loaded.get() && value != null && registry.invalidatedSince(policy.tagsOf(getName(), key, value),
+                generation)) {
+            delegate.evict(keyOf(key));
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        register(key, value);
+        delegate.put(keyOf(key), value);
+    }
+
+    public long generation() {
+        return registry.generation();
+    }
+
+    public boolean put(Object key, Object value, long generation) {
+        Set<String> tags = value != null ? policy.tagsOf(getName(), key, value) : Set.of();
+        if (registry.invalidatedSince(tags, generation)) {
+            return false;
+        }
+        if (!tags.isEmpty()) {
+            registry.register(getName() + ENTRY_SEPARATOR + keyOf(key), tags);
+        }
+        delegate.put(keyOf(key), value);
+        if (registry.invalidatedSince(tags, generation)) {
+            delegate.evict(keyOf(key));
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        register(key, value);
+        return delegate.putIfAbsent(keyOf(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(keyOf(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(keyOf(key));
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private void register(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        Set<String> tags = policy.tagsOf(getName(), key, value);
+        if (!tags.isEmpty()) {
+            registry.register(getName() + ENTRY_SEPARATOR + keyOf(key), tags);
+        }
+    }
+
+    private static String keyOf(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TaggingCacheManager implements DelegatingCacheManager {
+    private final CacheManager delegate;
+    private final CacheTagRegistry registry;
+    private final CacheTagPolicy policy;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public TaggingCacheManager(CacheManager delegate, CacheTagRegistry registry, CacheTagPolicy policy) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.policy = policy;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        return target != null
+                ? caches.computeIfAbsent(name, key -> new TaggingCache(target, registry, policy))
+                : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @Override
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+}
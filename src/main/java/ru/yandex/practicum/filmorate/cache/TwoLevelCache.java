@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import ru.yandex.practicum.filmorate.dto.CacheStatsDto;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TwoLevelCache implements Cache {
+    private final Cache delegate;
+    private final LocalCacheStore local;
+    private final CacheInvalidationBus bus;
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    TwoLevelCache(Cache delegate, LocalCacheStore local, CacheInvalidationBus bus) {
+        this.delegate = delegate;
+        this.local = local;
+        this.bus = bus;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = keyOf(key);
+        ValueWrapper value = local.get(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        localMisses.increment();
+        long generation = local.generation();
+        value = delegate.get(key);
+        if (value == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        local.put(localKey, value, generation);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(String.format("Значение в кэше %s по ключу %s не является %s",
+                    getName(), key, type.getName()));
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        long generation = local.generation();
+        T value = delegate.get(key, valueLoader);
+        local.put(keyOf(key), new SimpleValueWrapper(value), generation);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        local.put(keyOf(key), new SimpleValueWrapper(value));
+        bus.publish(getName(), keyOf(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        local.put(keyOf(key), existing != null ? existing : new SimpleValueWrapper(value));
+        if (existing == null) {
+            bus.publish(getName(), keyOf(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        local.evict(keyOf(key));
+        bus.publish(getName(), keyOf(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        local.evict(keyOf(key));
+        bus.publish(getName(), keyOf(key));
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        local.clear();
+        bus.publish(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        local.clear();
+        bus.publish(getName(), null);
+        return invalidated;
+    }
+
+    public CacheStatsDto getStats() {
+        long hits = localHits.sum();
+        long misses = localMisses.sum();
+        long loaded = remoteHits.sum();
+        long missed = remoteMisses.sum();
+        return new CacheStatsDto(getName(), local.size(), hits, misses, loaded, missed,
+                ratio(hits, misses), ratio(loaded, missed));
+    }
+
+    void evictLocal(String key) {
+        if (key != null) {
+            local.evict(key);
+        } else {
+            local.clear();
+        }
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses > 0 ? (double) hits / (hits + misses) : 0.0;
+    }
+
+    private static String keyOf(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import ru.yandex.practicum.filmorate.config.LocalCacheProperties;
+import ru.yandex.practicum.filmorate.dto.CacheStatsDto;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TwoLevelCacheManager implements DelegatingCacheManager {
+    private final CacheManager delegate;
+    private final CacheInvalidationBus bus;
+    private final LocalCacheProperties properties;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager delegate, CacheInvalidationBus bus, LocalCacheProperties properties) {
+        this.delegate = delegate;
+        this.bus = bus;
+        this.properties = properties;
+        bus.subscribe(this::evictLocal);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        return target != null
+                ? caches.computeIfAbsent(name, key -> new TwoLevelCache(target, new LocalCacheStore(
+                        properties.resolveMaxSize(name), properties.resolveTtl(name), System::nanoTime), bus))
+                : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @Override
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+
+    public List<CacheStatsDto> getStats() {
+        return caches.values().stream()
+                .map(TwoLevelCache::getStats)
+                .sorted(Comparator.comparing(CacheStatsDto::getName))
+                .toList();
+    }
+
+    private void evictLocal(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictLocal(key);
+        }
+    }
+}
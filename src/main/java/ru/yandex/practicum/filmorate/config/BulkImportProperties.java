@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.bulk-import")
+public class BulkImportProperties {
+    private int batchSize = 500;
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.cache.codec")
+public class CacheCodecProperties {
+    private Type type = Type.BINARY;
+    private DataSize compressionThreshold = DataSize.ofKilobytes(2);
+
+    public enum Type {
+        BINARY,
+        JDK
+    }
+}
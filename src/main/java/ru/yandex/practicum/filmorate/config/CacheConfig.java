@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import ru.yandex.practicum.filmorate.cache.*;
+
+import java.time.Clock;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CacheTagPolicy cacheTagPolicy() {
+        return new CacheTagPolicy();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+    public CacheTagRegistry redisCacheTagRegistry(StringRedisTemplate stringRedisTemplate,
+                                                  CacheProperties cacheProperties,
+                                                  CacheSpecProperties specProperties) {
+        CacheProperties.Redis redis = cacheProperties.getRedis();
+        return new RedisCacheTagRegistry(stringRedisTemplate, specProperties.resolveLongestTtl(redis.getTimeToLive()),
+                redis.getKeyPrefix());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+    public CacheInvalidationBus redisCacheInvalidationBus(StringRedisTemplate stringRedisTemplate,
+                                                          RedisMessageListenerContainer container,
+                                                          LocalCacheProperties localCacheProperties) {
+        return new RedisCacheInvalidationBus(stringRedisTemplate, container, localCacheProperties.getChannel());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(CacheTagRegistry.class)
+    public CacheTagRegistry inMemoryCacheTagRegistry() {
+        return new InMemoryCacheTagRegistry();
+    }
+
+    @Bean
+    public static BeanPostProcessor cacheManagerPostProcessor(ObjectProvider<CacheTagRegistry> registry,
+                                                              ObjectProvider<CacheTagPolicy> policy,
+                                                              ObjectProvider<CacheInvalidationBus> bus,
+                                                              ObjectProvider<LocalCacheProperties> local,
+                                                              ObjectProvider<CacheLoadingProperties> loading,
+                                                              ObjectProvider<CacheRefreshProperties> refresh,
+                                                              ObjectProvider<CacheSpecProperties> spec,
+                                                              ObjectProvider<RedisCacheConfiguration> redis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof CoalescingCacheManager)) {
+                    CacheInvalidationBus invalidationBus = bus.getIfAvailable();
+                    if (bean instanceof RedisCacheManager && invalidationBus != null && local.getObject().isEnabled()) {
+                        cacheManager = new TwoLevelCacheManager(cacheManager, invalidationBus, local.getObject());
+                    }
+                    return new CoalescingCacheManager(
+                            new TaggingCacheManager(cacheManager, registry.getObject(), policy.getObject()),
+                            loading.getObject().getNotFoundTtl(), refresh.getObject(), spec.getObject(),
+                            serializedSizer(redis.getIfAvailable()), refreshExecutor(refresh.getObject()),
+                            Clock.systemUTC());
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static ToIntFunction<Object> serializedSizer(RedisCacheConfiguration configuration) {
+        if (configuration == null) {
+            return null;
+        }
+        return value -> value != null ? configuration.getValueSerializationPair().write(value).remaining() : 0;
+    }
+
+    private static ExecutorService refreshExecutor(CacheRefreshProperties properties) {
+        return new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.cache.loading")
+public class CacheLoadingProperties {
+    private Duration notFoundTtl = Duration.ofSeconds(10);
+}
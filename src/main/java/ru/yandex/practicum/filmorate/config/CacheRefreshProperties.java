@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.cache.refresh")
+public class CacheRefreshProperties {
+    private int threads = 2;
+    private int queueCapacity = 100;
+    private Map<String, Policy> caches = new HashMap<>();
+
+    @Data
+    public static class Policy {
+        private Duration ttl = Duration.ofMinutes(5);
+        private double refreshFraction = 0.8;
+        private Duration maxStaleness = Duration.ZERO;
+
+        public boolean shouldRefresh(long ageMillis) {
+            return ageMillis >= ttl.toMillis() * refreshFraction;
+        }
+
+        public boolean isExpired(long ageMillis) {
+            return ageMillis >= ttl.plus(maxStaleness).toMillis();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.cache")
+public class CacheSpecProperties {
+    private Map<String, Spec> caches = new HashMap<>();
+
+    public boolean isEnabled(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec == null || spec.isEnabled();
+    }
+
+    public long resolveMaxEntryBytes(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getMaxEntrySize() != null ? spec.getMaxEntrySize().toBytes() : 0;
+    }
+
+    public Duration resolveLongestTtl(Duration defaultTtl) {
+        return caches.values().stream()
+                .map(Spec::getTtl)
+                .filter(Objects::nonNull)
+                .reduce(defaultTtl, (left, right) -> left == null || right.compareTo(left) > 0 ? right : left);
+    }
+
+    @Data
+    public static class Spec {
+        private boolean enabled = true;
+        private Duration ttl;
+        private DataSize maxEntrySize;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.events.appender")
+public class EventAppenderProperties {
+    private int capacity = 10000;
+    private int batchSize = 500;
+    private Duration flushTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.likes.write-behind")
+public class LikeWriteBehindProperties {
+    private boolean enabled = false;
+    private int stripes = 16;
+    private int flushSize = 1000;
+    private Duration flushInterval = Duration.ofMillis(500);
+    private int maxAttempts = 3;
+}
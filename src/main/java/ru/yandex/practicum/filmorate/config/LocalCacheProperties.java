@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.cache.local")
+public class LocalCacheProperties {
+    private boolean enabled = true;
+    private int maxSize = 1000;
+    private Duration ttl = Duration.ofSeconds(30);
+    private String channel = "filmorate:cache-invalidation";
+    private Map<String, Spec> caches = new HashMap<>();
+
+    public int resolveMaxSize(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getMaxSize() != null ? spec.getMaxSize() : maxSize;
+    }
+
+    public Duration resolveTtl(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getTtl() != null ? spec.getTtl() : ttl;
+    }
+
+    @Data
+    public static class Spec {
+        private Integer maxSize;
+        private Duration ttl;
+    }
+}
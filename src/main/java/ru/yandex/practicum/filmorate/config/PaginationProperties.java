@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.pagination")
+public class PaginationProperties {
+    private int defaultLimit = 100;
+    private int maxLimit = 1000;
+    private int streamChunkSize = 500;
+
+    public int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit <= 0) {
+            throw new ValidationException("Параметр 'limit' должен быть положительным числом");
+        }
+        return Math.min(limit, maxLimit);
+    }
+}
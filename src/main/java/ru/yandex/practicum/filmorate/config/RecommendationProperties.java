@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.recommendations")
+public class RecommendationProperties {
+    private String engine = "item";
+    private int neighbours = 50;
+    private int similarUsers = 20;
+    private int lshBands = 32;
+    private int lshRows = 3;
+    private long lshSeed = 42;
+    private Als als = new Als();
+
+    @Data
+    public static class Als {
+        private Boolean enabled;
+        private int factors = 32;
+        private int iterations = 10;
+        private double regularization = 0.1;
+        private double alpha = 4.0;
+        private int topN = 100;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private long seed = 42;
+        private Duration initialDelay = Duration.ofSeconds(30);
+        private Duration retrainInterval = Duration.ofHours(1);
+    }
+}
@@ -1,14 +1,20 @@
 package ru.yandex.practicum.filmorate.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import ru.yandex.practicum.filmorate.cache.BinaryCacheSerializer;
 
 @Configuration
 @EnableCaching
@@ -31,5 +37,38 @@ public class RedisConfig {
     public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory factory) {
         return new StringRedisTemplate(factory);
     }
-}
 
+    @Bean
+    public RedisCacheConfiguration redisCacheConfiguration(CacheProperties cacheProperties,
+                                                           CacheCodecProperties codecProperties) {
+        RedisSerializer<Object> serializer = codecProperties.getType() == CacheCodecProperties.Type.BINARY
+                ? new BinaryCacheSerializer((int) codecProperties.getCompressionThreshold().toBytes())
+                : RedisSerializer.java();
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+        CacheProperties.Redis redis = cacheProperties.getRedis();
+        if (redis.getTimeToLive() != null) {
+            configuration = configuration.entryTtl(redis.getTimeToLive());
+        }
+        if (redis.getKeyPrefix() != null) {
+            configuration = configuration.prefixCacheNameWith(redis.getKeyPrefix());
+        }
+        if (!redis.isCacheNullValues()) {
+            configuration = configuration.disableCachingNullValues();
+        }
+        if (!redis.isUseKeyPrefix()) {
+            configuration = configuration.disableKeyPrefix();
+        }
+        return configuration;
+    }
+
+    @Bean
+    public RedisCacheManagerBuilderCustomizer cacheSpecCustomizer(RedisCacheConfiguration redisCacheConfiguration,
+                                                                  CacheSpecProperties specProperties) {
+        return builder -> specProperties.getCaches().forEach((name, spec) -> {
+            if (spec.isEnabled() && spec.getTtl() != null) {
+                builder.withCacheConfiguration(name, redisCacheConfiguration.entryTtl(spec.getTtl()));
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.search")
+public class SearchProperties {
+    private int suggestDefaultLimit = 10;
+    private int suggestMaxLimit = 50;
+    private int suggestScanLimit = 512;
+    private int relevanceDefaultLimit = 20;
+    private int relevanceMaxLimit = 100;
+    private Relevance relevance = new Relevance();
+
+    public int resolveSuggestLimit(Integer limit) {
+        return resolve(limit, suggestDefaultLimit, suggestMaxLimit);
+    }
+
+    public int resolveRelevanceLimit(Integer limit) {
+        return resolve(limit, relevanceDefaultLimit, relevanceMaxLimit);
+    }
+
+    private static int resolve(Integer limit, int defaultLimit, int maxLimit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit <= 0) {
+            throw new ValidationException("Параметр 'limit' должен быть положительным числом");
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    @Data
+    public static class Relevance {
+        private double titleWeight = 3.0;
+        private double directorWeight = 2.0;
+        private double descriptionWeight = 1.0;
+        private double k1 = 1.2;
+        private double b = 0.75;
+        private double fuzzySimilarity = 0.3;
+        private int fuzzyExpansions = 5;
+        private double popularityWeight = 0.5;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.dto.CacheReportDto;
+import ru.yandex.practicum.filmorate.service.CacheStatsService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/internal/caches")
+@RequiredArgsConstructor
+public class CacheController {
+    private final CacheStatsService cacheStatsService;
+
+    @GetMapping()
+    public List<CacheReportDto> findAll() {
+        return cacheStatsService.findAll();
+    }
+}
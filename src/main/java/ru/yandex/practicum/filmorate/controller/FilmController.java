@@ -1,13 +1,30 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.config.PaginationProperties;
+import ru.yandex.practicum.filmorate.config.SearchProperties;
+import ru.yandex.practicum.filmorate.dto.FacetFilter;
 import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.FilmSearchResultDto;
+import ru.yandex.practicum.filmorate.dto.SuggestionDto;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.service.BulkImportService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -25,11 +42,51 @@ public class FilmController {
     private final String commonFilmsPath = "/common";
     private final String directorPath = "/director/{director-id}";
     private final String searchPath = "/search";
+    private final String suggestPath = "/search/suggest";
+    private final String exportPath = "/export";
+    private final String bulkPath = "/bulk";
+    private final String statsVerifyPath = "/stats/verify";
+    private final String statsRebuildPath = "/stats/rebuild";
     private final FilmService filmService;
+    private final PaginationProperties paginationProperties;
+    private final SearchProperties searchProperties;
+    private final ObjectMapper objectMapper;
+    private final BulkImportService bulkImportService;
 
     @GetMapping
-    public List<FilmDto> findAll() {
-        return filmService.findAll();
+    public ResponseEntity<List<FilmDto>> findAll(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "false") boolean unpaged
+    ) {
+        if (unpaged) {
+            return ResponseEntity.ok(filmService.findAll());
+        }
+        int pageLimit = paginationProperties.resolveLimit(limit);
+        return PageResponse.of(filmService.findPage(after, pageLimit), pageLimit, FilmDto::getId);
+    }
+
+    @GetMapping(exportPath)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                filmService.forEachChunk(paginationProperties.getStreamChunkSize(), films -> {
+                    try {
+                        for (FilmDto film : films) {
+                            generator.writeObject(film);
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @GetMapping(filmsIdPath)
@@ -42,6 +99,21 @@ public class FilmController {
         return filmService.create(FilmMapper.mapToFilm(filmDto));
     }
 
+    @PostMapping(value = bulkPath, consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void bulkCreate(InputStream input, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream output = response.getOutputStream();
+        bulkImportService.importFilms(input, status -> {
+            try {
+                output.write(objectMapper.writeValueAsBytes(status));
+                output.write('\n');
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @PutMapping
     public FilmDto update(@Valid @RequestBody FilmDto filmDto) {
         return filmService.update(FilmMapper.mapToFilm(filmDto));
@@ -87,11 +159,49 @@ public class FilmController {
 
     @GetMapping(searchPath)
     public List<FilmDto> search(@RequestParam String query,
-                                @RequestParam String by) {
+                                @RequestParam String by,
+                                @RequestParam(defaultValue = "rate") String sort,
+                                @RequestParam(required = false) Integer limit,
+                                FacetFilter filter) {
+        return searchFilms(query, by, sort, limit, filter);
+    }
+
+    @GetMapping(value = searchPath, params = "facets=true")
+    public FilmSearchResultDto searchWithFacets(@RequestParam String query,
+                                                @RequestParam String by,
+                                                @RequestParam(defaultValue = "rate") String sort,
+                                                @RequestParam(required = false) Integer limit,
+                                                FacetFilter filter) {
+        List<FilmDto> films = searchFilms(query, by, sort, limit, filter);
+        return new FilmSearchResultDto(films, filmService.countFacets(query, by, "relevance".equals(sort), filter));
+    }
+
+    @GetMapping(suggestPath)
+    public List<SuggestionDto> suggest(@RequestParam String prefix,
+                                       @RequestParam(required = false) Integer limit) {
+        return filmService.suggest(prefix, searchProperties.resolveSuggestLimit(limit));
+    }
+
+    @GetMapping(statsVerifyPath)
+    public List<FilmStats> verifyStats() {
+        return filmService.verifyStats();
+    }
+
+    @PostMapping(statsRebuildPath)
+    public List<FilmStats> rebuildStats() {
+        return filmService.rebuildStats();
+    }
+
+    private List<FilmDto> searchFilms(String query, String by, String sort, Integer limit, FacetFilter filter) {
         if (!isValidSearchBy(by)) {
             throw new ValidationException("Parameter 'by' must contain 'director' and/or 'title'");
         }
-        return filmService.search(query, by);
+        return switch (sort) {
+            case "rate" -> filmService.search(query, by, filter);
+            case "relevance" -> filmService.searchByRelevance(query, by,
+                    searchProperties.resolveRelevanceLimit(limit), filter);
+            default -> throw new ValidationException("Parameter 'sort' must be 'rate' or 'relevance'");
+        };
     }
 
     private boolean isValidSearchBy(String by) {
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageResponse {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String PREV_CURSOR_HEADER = "X-Prev-Cursor";
+
+    public static <T> ResponseEntity<List<T>> of(List<T> items, int limit, Function<T, ?> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!items.isEmpty() && items.size() >= limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(cursorOf.apply(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+
+    public static <T> ResponseEntity<List<T>> ofBackward(List<T> items, int limit, Function<T, ?> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!items.isEmpty() && items.size() >= limit) {
+            response.header(PREV_CURSOR_HEADER, String.valueOf(cursorOf.apply(items.get(0))));
+        }
+        return response.body(items);
+    }
+}
@@ -1,14 +1,25 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.config.PaginationProperties;
+import ru.yandex.practicum.filmorate.dto.FeedCursor;
 import ru.yandex.practicum.filmorate.dto.FilmDto;
 import ru.yandex.practicum.filmorate.dto.UserDto;
 import ru.yandex.practicum.filmorate.model.Event;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.BulkImportService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -18,14 +29,27 @@ public class UserController {
     private final String usersIdPath = "/{id}";
     private final String friendsIdPath = "/{id}/friends/{friend-id}";
     private final String friendsPath = "/{id}/friends";
+    private final String friendsCountPath = "/{id}/friends/count";
     private final String commonFriendsPath = "/{id}/friends/common/{other-id}";
     private final String recommendationsPath = "/{id}/recommendations";
     private final String getFeed = "/{id}/feed";
+    private final String bulkPath = "/bulk";
     private final UserService userService;
+    private final PaginationProperties paginationProperties;
+    private final BulkImportService bulkImportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping()
-    public List<UserDto> findAll() {
-        return userService.findAll();
+    public ResponseEntity<List<UserDto>> findAll(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "false") boolean unpaged
+    ) {
+        if (unpaged) {
+            return ResponseEntity.ok(userService.findAll());
+        }
+        int pageLimit = paginationProperties.resolveLimit(limit);
+        return PageResponse.of(userService.findPage(after, pageLimit), pageLimit, UserDto::getId);
     }
 
     @GetMapping(usersIdPath)
@@ -38,6 +62,21 @@ public class UserController {
         return userService.create(user);
     }
 
+    @PostMapping(value = bulkPath, consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void bulkCreate(InputStream input, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream output = response.getOutputStream();
+        bulkImportService.importUsers(input, status -> {
+            try {
+                output.write(objectMapper.writeValueAsBytes(status));
+                output.write('\n');
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @PutMapping()
     public UserDto update(@Valid @RequestBody User user) {
         return userService.update(user);
@@ -59,8 +98,22 @@ public class UserController {
     }
 
     @GetMapping(friendsPath)
-    public List<UserDto> getFriends(@PathVariable Long id) {
-        return userService.getFriends(id);
+    public ResponseEntity<List<UserDto>> getFriends(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after
+    ) {
+        if (limit == null && after == null) {
+            return ResponseEntity.ok(userService.getFriends(id, 0, Integer.MAX_VALUE));
+        }
+        int pageLimit = paginationProperties.resolveLimit(limit);
+        return PageResponse.of(userService.getFriends(id, after != null ? after : 0, pageLimit), pageLimit,
+                UserDto::getId);
+    }
+
+    @GetMapping(friendsCountPath)
+    public int countFriends(@PathVariable Long id) {
+        return userService.countFriends(id);
     }
 
     @GetMapping(commonFriendsPath)
@@ -69,12 +122,29 @@ public class UserController {
     }
 
     @GetMapping(recommendationsPath)
-    public List<FilmDto> getRecommendationsForUser(@PathVariable Long id) {
-        return userService.getRecommendationsForUser(id);
+    public List<FilmDto> getRecommendationsForUser(
+            @PathVariable Long id,
+            @RequestParam(required = false) String engine,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return userService.getRecommendationsForUser(id, engine, paginationProperties.resolveLimit(limit));
     }
 
     @GetMapping(getFeed)
-    public List<Event> getEventFeed(@PathVariable Long id) {
-        return userService.getEventFeed(id);
+    public ResponseEntity<List<Event>> getEventFeed(
+            @PathVariable Long id,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit
+    ) {
+        if (since == null && before == null && limit == null) {
+            return ResponseEntity.ok(userService.getEventFeed(id));
+        }
+        int pageLimit = paginationProperties.resolveLimit(limit);
+        List<Event> events = userService.getEventFeed(id, since, before, pageLimit);
+        if (since != null && before == null) {
+            return PageResponse.of(events, pageLimit, FeedCursor::of);
+        }
+        return PageResponse.ofBackward(events, pageLimit, FeedCursor::of);
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkLineStatus {
+    long line;
+    Status status;
+    Long id;
+    String message;
+
+    public static BulkLineStatus created(long line, Long id) {
+        return new BulkLineStatus(line, Status.CREATED, id, null);
+    }
+
+    public static BulkLineStatus invalid(long line, String message) {
+        return new BulkLineStatus(line, Status.INVALID, null, message);
+    }
+
+    public static BulkLineStatus failed(long line, String message) {
+        return new BulkLineStatus(line, Status.FAILED, null, message);
+    }
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CacheReportDto {
+    String name;
+    boolean enabled;
+    long hits;
+    long misses;
+    double hitRatio;
+    long loads;
+    long loadFailures;
+    double loadP50Ms;
+    double loadP95Ms;
+    double loadP99Ms;
+    long averageSerializedBytes;
+    long entries;
+    long estimatedBytes;
+    CacheStatsDto local;
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CacheStatsDto {
+    String name;
+    int localSize;
+    long localHits;
+    long localMisses;
+    long remoteHits;
+    long remoteMisses;
+    double localHitRatio;
+    double remoteHitRatio;
+}
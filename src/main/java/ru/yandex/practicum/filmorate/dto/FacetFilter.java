@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FacetFilter {
+    Set<Long> genres = new HashSet<>();
+    Set<Integer> years = new HashSet<>();
+    Set<Integer> decades = new HashSet<>();
+    Set<Long> mpa = new HashSet<>();
+
+    public boolean isEmpty() {
+        return genres.isEmpty() && years.isEmpty() && decades.isEmpty() && mpa.isEmpty();
+    }
+}
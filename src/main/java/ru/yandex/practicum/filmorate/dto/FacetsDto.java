@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FacetsDto {
+    List<FacetCountDto> genres;
+    List<FacetCountDto> years;
+    List<FacetCountDto> decades;
+    List<FacetCountDto> mpa;
+}
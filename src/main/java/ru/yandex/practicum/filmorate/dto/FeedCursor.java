@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Event;
+
+public record FeedCursor(long timestamp, long id) {
+    public static final FeedCursor FIRST = new FeedCursor(Long.MIN_VALUE, Long.MIN_VALUE);
+    public static final FeedCursor LAST = new FeedCursor(Long.MAX_VALUE, Long.MAX_VALUE);
+    private static final String SEPARATOR = "_";
+
+    public static FeedCursor of(Event event) {
+        return new FeedCursor(event.getTimestamp(), event.getEventId());
+    }
+
+    public static FeedCursor after(String cursor) {
+        return parse(cursor, Long.MAX_VALUE);
+    }
+
+    public static FeedCursor before(String cursor) {
+        return parse(cursor, Long.MIN_VALUE);
+    }
+
+    private static FeedCursor parse(String cursor, long defaultId) {
+        try {
+            int separator = cursor.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return new FeedCursor(Long.parseLong(cursor), defaultId);
+            }
+            return new FeedCursor(Long.parseLong(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректный курсор ленты событий: " + cursor);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + SEPARATOR + id;
+    }
+}
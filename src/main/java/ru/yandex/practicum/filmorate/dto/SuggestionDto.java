@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SuggestionDto {
+    Type type;
+    Long id;
+    String text;
+    double rate;
+
+    public enum Type {
+        FILM,
+        DIRECTOR
+    }
+}
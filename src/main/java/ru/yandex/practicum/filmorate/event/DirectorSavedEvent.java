@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.event;
+
+import ru.yandex.practicum.filmorate.model.Director;
+
+public record DirectorSavedEvent(Director director) {
+}
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.event;
+
+import java.util.List;
+
+public record FilmStatsRebuiltEvent(List<Long> filmIds) {
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.event;
+
+public record LikeChangedEvent(long filmId, long userId, Double mark, Double previousMark) {
+
+    public long likesDelta() {
+        return (mark != null ? 1 : 0) - (previousMark != null ? 1 : 0);
+    }
+
+    public double markDelta() {
+        return (mark != null ? mark : 0.0) - (previousMark != null ? previousMark : 0.0);
+    }
+}
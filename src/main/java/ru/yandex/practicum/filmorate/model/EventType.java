@@ -1,7 +1,23 @@
 package ru.yandex.practicum.filmorate.model;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
 public enum EventType {
-    LIKE,
-    FRIEND,
-    REVIEW
+    LIKE(1),
+    FRIEND(3),
+    REVIEW(2);
+
+    private final long id;
+
+    public static EventType fromId(long id) {
+        for (EventType eventType : values()) {
+            if (eventType.id == id) {
+                return eventType;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное событие: " + id);
+    }
 }
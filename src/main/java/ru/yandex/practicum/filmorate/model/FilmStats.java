@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = { "filmId" })
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FilmStats {
+    Long filmId;
+    Long likesCount;
+    Double markSum;
+    Double rate;
+}
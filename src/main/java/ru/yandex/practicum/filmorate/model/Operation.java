@@ -1,7 +1,23 @@
 package ru.yandex.practicum.filmorate.model;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
 public enum Operation {
-    ADD,
-    REMOVE,
-    UPDATE
+    ADD(2),
+    REMOVE(1),
+    UPDATE(3);
+
+    private final long id;
+
+    public static Operation fromId(long id) {
+        for (Operation operation : values()) {
+            if (operation.id == id) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестная операция: " + id);
+    }
 }
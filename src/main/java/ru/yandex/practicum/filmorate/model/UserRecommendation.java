@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = { "userId", "place" })
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserRecommendation {
+    Long userId;
+    Integer place;
+    Long filmId;
+    Double score;
+}
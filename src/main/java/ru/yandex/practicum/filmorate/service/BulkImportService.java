@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.config.BulkImportProperties;
+import ru.yandex.practicum.filmorate.dto.BulkLineStatus;
+import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkImportService {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final BulkImportProperties bulkImportProperties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public void importFilms(InputStream input, Consumer<BulkLineStatus> statusConsumer) throws IOException {
+        importLines(input, FilmDto.class, FilmMapper::mapToFilm, filmService::createAll, statusConsumer);
+    }
+
+    public void importUsers(InputStream input, Consumer<BulkLineStatus> statusConsumer) throws IOException {
+        importLines(input, User.class, Function.identity(), userService::createAll, statusConsumer);
+    }
+
+    private <D, E> void importLines(InputStream input, Class<D> type, Function<D, E> mapper,
+                                    Function<List<E>, List<Long>> writer,
+                                    Consumer<BulkLineStatus> statusConsumer) throws IOException {
+        int batchSize = Math.max(1, bulkImportProperties.getBatchSize());
+        List<Row<E>> batch = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            D dto;
+            try {
+                dto = objectMapper.readValue(line, type);
+            } catch (JsonProcessingException e) {
+                statusConsumer.accept(BulkLineStatus.invalid(lineNumber, "Некорректный JSON: " + e.getOriginalMessage()));
+                continue;
+            }
+            Set<ConstraintViolation<D>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                statusConsumer.accept(BulkLineStatus.invalid(lineNumber, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "))));
+                continue;
+            }
+            batch.add(new Row<>(lineNumber, mapper.apply(dto)));
+            if (batch.size() >= batchSize) {
+                flush(batch, writer, statusConsumer);
+                batch.clear();
+            }
+        }
+        flush(batch, writer, statusConsumer);
+    }
+
+    private <E> void flush(List<Row<E>> batch, Function<List<E>, List<Long>> writer,
+                           Consumer<BulkLineStatus> statusConsumer) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> ids = writer.apply(batch.stream().map(Row::entity).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                statusConsumer.accept(BulkLineStatus.created(batch.get(i).line(), ids.get(i)));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                statusConsumer.accept(BulkLineStatus.failed(batch.get(0).line(), e.getMessage()));
+                return;
+            }
+            log.warn("Пакет из {} строк отклонен, строки будут сохранены по одной: {}", batch.size(), e.getMessage());
+            batch.forEach(row -> flush(List.of(row), writer, statusConsumer));
+        }
+    }
+
+    private record Row<E>(long line, E entity) {
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.CacheMetrics;
+import ru.yandex.practicum.filmorate.cache.CoalescingCache;
+import ru.yandex.practicum.filmorate.cache.CoalescingCacheManager;
+import ru.yandex.practicum.filmorate.cache.DelegatingCacheManager;
+import ru.yandex.practicum.filmorate.cache.TwoLevelCacheManager;
+import ru.yandex.practicum.filmorate.config.CacheSpecProperties;
+import ru.yandex.practicum.filmorate.dto.CacheReportDto;
+import ru.yandex.practicum.filmorate.dto.CacheStatsDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class CacheStatsService {
+    private static final int SCAN_BATCH = 1000;
+
+    private final CacheManager cacheManager;
+    private final CacheSpecProperties specProperties;
+    private final RedisCacheConfiguration redisCacheConfiguration;
+    private final StringRedisTemplate redisTemplate;
+
+    public CacheStatsService(CacheManager cacheManager, CacheSpecProperties specProperties,
+                             RedisCacheConfiguration redisCacheConfiguration, StringRedisTemplate redisTemplate) {
+        this.cacheManager = cacheManager;
+        this.specProperties = specProperties;
+        this.redisCacheConfiguration = redisCacheConfiguration;
+        this.redisTemplate = redisTemplate;
+    }
+
+    public List<CacheReportDto> findAll() {
+        Map<String, CacheStatsDto> localStats = findLocalStats();
+        Map<String, Cache> caches = new TreeMap<>();
+        if (cacheManager instanceof CoalescingCacheManager coalescing) {
+            caches.putAll(coalescing.getCaches());
+        }
+        specProperties.getCaches().keySet().forEach(name -> caches.computeIfAbsent(name, cacheManager::getCache));
+        return caches.values().stream()
+                .map(cache -> report(cache, localStats.get(cache.getName())))
+                .toList();
+    }
+
+    private CacheReportDto report(Cache cache, CacheStatsDto local) {
+        CacheReportDto report = new CacheReportDto();
+        report.setName(cache.getName());
+        report.setEnabled(specProperties.isEnabled(cache.getName()));
+        report.setLocal(local);
+        if (!(cache instanceof CoalescingCache coalescing)) {
+            return report;
+        }
+        CacheMetrics metrics = coalescing.getMetrics();
+        long requests = metrics.getHits() + metrics.getMisses();
+        double[] latencies = metrics.latencyPercentilesMillis(0.5, 0.95, 0.99);
+        long entries = countEntries(cache);
+        report.setHits(metrics.getHits());
+        report.setMisses(metrics.getMisses());
+        report.setHitRatio(requests > 0 ? (double) metrics.getHits() / requests : 0);
+        report.setLoads(metrics.getLoads());
+        report.setLoadFailures(metrics.getLoadFailures());
+        report.setLoadP50Ms(latencies[0]);
+        report.setLoadP95Ms(latencies[1]);
+        report.setLoadP99Ms(latencies[2]);
+        report.setAverageSerializedBytes(metrics.getAverageSize());
+        report.setEntries(entries);
+        report.setEstimatedBytes(entries >= 0 ? entries * metrics.getAverageSize() : -1);
+        return report;
+    }
+
+    private long countEntries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (!(nativeCache instanceof RedisCacheWriter)) {
+            return -1;
+        }
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(redisCacheConfiguration.getKeyPrefixFor(cache.getName()) + "*")
+                .count(SCAN_BATCH)
+                .build();
+        long count = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                cursor.next();
+                count++;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось подсчитать записи кэша {}: {}", cache.getName(), e.getMessage());
+            return -1;
+        }
+        return count;
+    }
+
+    private Map<String, CacheStatsDto> findLocalStats() {
+        CacheManager manager = cacheManager;
+        while (manager instanceof DelegatingCacheManager delegating) {
+            if (manager instanceof TwoLevelCacheManager twoLevel) {
+                return twoLevel.getStats().stream()
+                        .collect(Collectors.toMap(CacheStatsDto::getName, Function.identity()));
+            }
+            manager = delegating.getDelegate();
+        }
+        return Map.of();
+    }
+}
@@ -2,8 +2,11 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dto.DirectorDto;
+import ru.yandex.practicum.filmorate.event.DirectorDeletedEvent;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.DirectorMapper;
 import ru.yandex.practicum.filmorate.model.Director;
@@ -15,8 +18,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DirectorService {
     private final DirectorRepository directorRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Cacheable("directors")
+    @Cacheable(value = "directors", sync = true)
     public List<DirectorDto> findAll() {
         return directorRepository.findAll()
                 .stream()
@@ -24,7 +28,7 @@ public class DirectorService {
                 .toList();
     }
 
-    @Cacheable(value = "directors", key = "#id")
+    @Cacheable(value = "directors", key = "#id", sync = true)
     public DirectorDto findById(Long id) {
         return directorRepository.findById(id)
                 .map(DirectorMapper::mapToDirectorDto)
@@ -32,14 +36,19 @@ public class DirectorService {
     }
 
     public DirectorDto create(Director director) {
-        return DirectorMapper.mapToDirectorDto(directorRepository.create(director));
+        Director createdDirector = directorRepository.create(director);
+        eventPublisher.publishEvent(new DirectorSavedEvent(createdDirector));
+        return DirectorMapper.mapToDirectorDto(createdDirector);
     }
 
     public DirectorDto update(Director director) {
-        return DirectorMapper.mapToDirectorDto(directorRepository.update(director));
+        Director updatedDirector = directorRepository.update(director);
+        eventPublisher.publishEvent(new DirectorSavedEvent(updatedDirector));
+        return DirectorMapper.mapToDirectorDto(updatedDirector);
     }
 
     public void delete(Long id) {
         directorRepository.delete(id);
+        eventPublisher.publishEvent(new DirectorDeletedEvent(id));
     }
 }
\ No newline at end of file
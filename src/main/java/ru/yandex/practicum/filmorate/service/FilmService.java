@@ -2,99 +2,178 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dto.FacetFilter;
+import ru.yandex.practicum.filmorate.dto.FacetsDto;
 import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.SuggestionDto;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmStatsRebuiltEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
 import ru.yandex.practicum.filmorate.model.EventType;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
 import ru.yandex.practicum.filmorate.model.Operation;
 import ru.yandex.practicum.filmorate.storage.DirectorRepository;
-import ru.yandex.practicum.filmorate.storage.EventRepository;
 import ru.yandex.practicum.filmorate.storage.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.FilmStatsRepository;
 import ru.yandex.practicum.filmorate.storage.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.buffer.EventAppender;
+import ru.yandex.practicum.filmorate.storage.buffer.LikeWriteBehindBuffer;
+import ru.yandex.practicum.filmorate.storage.index.FilmFacetIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmRelevanceIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.index.FilmSuggestIndex;
+import ru.yandex.practicum.filmorate.storage.index.PopularityIndex;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 @Service
 @RequiredArgsConstructor
 public class FilmService {
     private final FilmRepository filmRepository;
     private final LikeRepository likeRepository;
-    private final FilmEnrichmentService filmEnrichmentService;
     private final DirectorRepository directorRepository;
-    private final EventRepository eventRepository;
-    private final ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    private final EventAppender eventAppender;
+    private final FilmStatsRepository filmStatsRepository;
+    private final PopularityIndex popularityIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final FilmRelevanceIndex filmRelevanceIndex;
+    private final FilmFacetIndex filmFacetIndex;
+    private final FilmSuggestIndex filmSuggestIndex;
+    private final LikeWriteBehindBuffer likeBuffer;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Cacheable("films")
+    @Cacheable(value = "films", sync = true)
     public List<FilmDto> findAll() {
         List<Film> films = filmRepository.findAll();
-        return enrichAndMapFilms(films);
+        return mapFilms(films);
     }
 
-    @Cacheable(value = "filmsByIds", key = "#filmIds")
+    @Cacheable(value = "films", key = "'page_' + #after + '_' + #limit", sync = true)
+    public List<FilmDto> findPage(long after, int limit) {
+        List<Film> films = filmRepository.findPage(after, limit);
+        return mapFilms(films);
+    }
+
+    public void forEachChunk(int chunkSize, Consumer<List<FilmDto>> chunkConsumer) {
+        long after = 0;
+        List<Film> films;
+        do {
+            films = filmRepository.findPage(after, chunkSize);
+            if (films.isEmpty()) {
+                break;
+            }
+            after = films.get(films.size() - 1).getId();
+            chunkConsumer.accept(mapFilms(films));
+        } while (films.size() == chunkSize);
+    }
+
+    @Cacheable(value = "filmsByIds", key = "#filmIds", sync = true)
     public List<FilmDto> findAllWithIds(Set<Long> filmIds) {
         List<Film> films = filmRepository.findAllWithIds(filmIds);
-        return enrichAndMapFilms(films);
+        return mapFilms(films);
     }
 
-    @Cacheable(value = "filmById", key = "#id")
+    @Cacheable(value = "filmById", key = "#id", sync = true)
     public Optional<FilmDto> findById(Long id) {
         Optional<Film> filmOptional = filmRepository.findById(id);
         if (filmOptional.isPresent()) {
             Film film = filmOptional.get();
-            filmEnrichmentService.enrichFilm(film);
             return Optional.of(FilmMapper.mapToFilmDto(film));
         } else {
             throw new NotFoundException(String.format("Фильм с id=%d не найден", id));
         }
     }
 
+    @Transactional
     public FilmDto create(Film film) {
         checkReleaseDate(film);
         Film createdFilm = filmRepository.create(film);
-        filmEnrichmentService.enrichFilm(createdFilm);
+        filmStatsRepository.create(createdFilm.getId());
+        eventPublisher.publishEvent(new FilmSavedEvent(createdFilm));
         return FilmMapper.mapToFilmDto(createdFilm);
     }
 
+    @Transactional
+    public List<Long> createAll(List<Film> films) {
+        films.forEach(this::checkReleaseDate);
+        List<Long> filmIds = filmRepository.createAll(films);
+        filmStatsRepository.createAll(filmIds);
+        films.forEach(film -> eventPublisher.publishEvent(new FilmSavedEvent(film)));
+        return filmIds;
+    }
+
+    @Transactional
     public FilmDto update(Film film) {
         checkReleaseDate(film);
         Film updatedFilm = filmRepository.update(film);
-        filmEnrichmentService.enrichFilm(updatedFilm);
+        eventPublisher.publishEvent(new FilmSavedEvent(updatedFilm));
         return FilmMapper.mapToFilmDto(updatedFilm);
     }
 
     public void delete(Long id) {
         filmRepository.delete(id);
+        eventPublisher.publishEvent(new FilmDeletedEvent(id));
     }
 
-    @Cacheable(value = "commonFilms", key = "#userId + '_' + #friendId")
+    @Cacheable(value = "commonFilms", key = "{#userId, #friendId}", sync = true)
     public List<FilmDto> getCommonFilms(Long userId, Long friendId) {
         List<Film> films = filmRepository.getCommonFilms(userId, friendId);
-        return enrichAndMapFilms(films);
+        return mapFilms(films);
     }
 
+    @Transactional
     public void addLike(Long filmId, Long userId, Double mark) {
-        eventRepository.addEvent(userId, filmId, EventType.LIKE, Operation.ADD);
-        likeRepository.addLike(filmId, userId, mark);
+        eventAppender.append(userId, filmId, EventType.LIKE, Operation.ADD);
+        if (likeBuffer.isEnabled()) {
+            likeBuffer.put(filmId, userId, mark);
+            return;
+        }
+        Optional<Double> previousMark = likeRepository.addLike(filmId, userId, mark);
+        LikeChangedEvent event = new LikeChangedEvent(filmId, userId, mark, previousMark.orElse(null));
+        filmStatsRepository.applyDelta(filmId, event.likesDelta(), event.markDelta());
+        eventPublisher.publishEvent(event);
     }
 
+    @Transactional
     public void deleteLike(Long filmId, Long userId) {
-        eventRepository.addEvent(userId, filmId, EventType.LIKE, Operation.REMOVE);
-        likeRepository.deleteLike(filmId, userId);
+        eventAppender.append(userId, filmId, EventType.LIKE, Operation.REMOVE);
+        if (likeBuffer.isEnabled()) {
+            likeBuffer.put(filmId, userId, null).orElseThrow(() -> LikeRepository.likeNotFound(filmId, userId));
+            return;
+        }
+        Double mark = likeRepository.deleteLike(filmId, userId);
+        LikeChangedEvent event = new LikeChangedEvent(filmId, userId, null, mark);
+        filmStatsRepository.applyDelta(filmId, event.likesDelta(), event.markDelta());
+        eventPublisher.publishEvent(event);
     }
 
-    @Cacheable(value = "popularFilms", key = "#count + '_' + #genreId + '_' + #year")
+    public List<FilmStats> verifyStats() {
+        likeBuffer.flush();
+        return filmStatsRepository.findDrifted();
+    }
+
+    @Transactional
+    public List<FilmStats> rebuildStats() {
+        likeBuffer.flush();
+        List<FilmStats> drifted = filmStatsRepository.rebuild();
+        eventPublisher.publishEvent(new FilmStatsRebuiltEvent(drifted.stream().map(FilmStats::getFilmId).toList()));
+        return drifted;
+    }
+
+    @Cacheable(value = "popularFilms", key = "#count + '_' + #genreId + '_' + #year", sync = true)
     public List<FilmDto> getPopularFilms(int count, Integer genreId, Integer year) {
-        List<Film> films = filmRepository.findAllWithFilters(genreId, year);
-        List<FilmDto> enrichedFilms = enrichAndMapFilms(films);
-        return enrichedFilms.stream()
-                .sorted(Comparator.comparingDouble(FilmDto::getRate).reversed())
-                .limit(count)
-                .toList();
+        return findFilmsInOrder(popularityIndex.findTop(count, genreId, year));
     }
 
     private void checkReleaseDate(Film film) {
@@ -104,11 +183,11 @@ public class FilmService {
         }
     }
 
-    @Cacheable(value = "filmsByDirector", key = "#directorId + '_' + #sortBy")
+    @Cacheable(value = "filmsByDirector", key = "{#directorId, #sortBy}", sync = true)
     public List<FilmDto> getFilmsByDirector(Long directorId, String sortBy) {
         List<Film> films = filmRepository.findFilmsByDirector(directorId);
         directorRepository.existById(directorId);
-        List<FilmDto> enrichedFilms = enrichAndMapFilms(films);
+        List<FilmDto> enrichedFilms = new ArrayList<>(mapFilms(films));
         if ("year".equals(sortBy)) {
             enrichedFilms.sort(Comparator.comparing(FilmDto::getReleaseDate));
         } else {
@@ -117,52 +196,71 @@ public class FilmService {
         return enrichedFilms;
     }
 
-    @Cacheable(value = "searchFilms", key = "#query + '_' + #by")
-    public List<FilmDto> search(String query, String by) {
+    public List<FilmDto> search(String query, String by, FacetFilter filter) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        List<String> searchBy = parseSearchBy(by);
+        LongPredicate matcher = filmFacetIndex.matcher(filter);
+        List<Long> filmIds = filmSearchIndex.search(query, searchBy.contains("title"), searchBy.contains("director"))
+                .stream()
+                .filter(matcher::test)
+                .sorted(Comparator.comparingDouble(popularityIndex::getRate).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .toList();
+        return findFilmsInOrder(filmIds);
+    }
+
+    public List<FilmDto> searchByRelevance(String query, String by, int limit, FacetFilter filter) {
         if (query == null || query.isBlank()) {
             return List.of();
         }
+        List<String> searchBy = parseSearchBy(by);
+        return findFilmsInOrder(filmRelevanceIndex.search(query, searchBy.contains("title"),
+                searchBy.contains("director"), limit, filmFacetIndex.matcher(filter)));
+    }
+
+    public FacetsDto countFacets(String query, String by, boolean byRelevance, FacetFilter filter) {
+        if (query == null || query.isBlank()) {
+            return filmFacetIndex.count(Set.of(), filter);
+        }
+        List<String> searchBy = parseSearchBy(by);
+        boolean byTitle = searchBy.contains("title");
+        boolean byDirector = searchBy.contains("director");
+        Set<Long> filmIds = byRelevance
+                ? filmRelevanceIndex.match(query, byTitle, byDirector)
+                : filmSearchIndex.search(query, byTitle, byDirector);
+        return filmFacetIndex.count(filmIds, filter);
+    }
+
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return filmSuggestIndex.suggest(prefix, limit);
+    }
+
+    private static List<String> parseSearchBy(String by) {
         List<String> searchBy = Arrays.asList(by.toLowerCase().split(","));
         if (!searchBy.contains("director") && !searchBy.contains("title")) {
             throw new ValidationException("Параметр 'by' должен содержать 'director' и/или 'title'");
         }
-        List<Film> films = filmRepository.search(query, searchBy);
-        List<FilmDto> enrichedFilms = enrichAndMapFilms(films);
-        return enrichedFilms.stream()
-                .sorted(Comparator.comparingDouble(FilmDto::getRate).reversed())
+        return searchBy;
+    }
+
+    private List<FilmDto> findFilmsInOrder(List<Long> filmIds) {
+        Map<Long, FilmDto> filmsById = new HashMap<>();
+        mapFilms(filmRepository.findAllWithIds(filmIds))
+                .forEach(film -> filmsById.put(film.getId(), film));
+        return filmIds.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
 
-    private List<FilmDto> enrichAndMapFilms(List<Film> films) {
-        if (films.size() < 10) {
-            filmEnrichmentService.enrichFilms(films);
-            return films.stream().map(FilmMapper::mapToFilmDto).toList();
-        }
-        int totalFilms = films.size();
-        int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), totalFilms);
-        int batchSize = (totalFilms + threadCount - 1) / threadCount;
-        List<Callable<List<Film>>> tasks = new ArrayList<>();
-        for (int i = 0; i < threadCount; i++) {
-            int startIdx = i * batchSize;
-            int endIdx = Math.min((i + 1) * batchSize, totalFilms);
-            if (startIdx >= totalFilms) break;
-            List<Film> subList = films.subList(startIdx, endIdx);
-            tasks.add(() -> {
-                filmEnrichmentService.enrichFilms(subList);
-                return subList;
-            });
-        }
-        try {
-            List<Future<List<Film>>> futures = executorService.invokeAll(tasks);
-            List<Film> enrichedFilms = new ArrayList<>();
-            for (Future<List<Film>> future : futures) {
-                enrichedFilms.addAll(future.get());
-            }
-            return enrichedFilms.stream()
-                    .map(FilmMapper::mapToFilmDto)
-                    .toList();
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Ошибка при выполнении многопоточной операции", e);
+    private List<FilmDto> mapFilms(List<Film> films) {
+        if (likeBuffer.isEnabled()) {
+            films.forEach(film -> film.setRate(popularityIndex.getRate(film.getId())));
         }
+        return films.stream()
+                .map(FilmMapper::mapToFilmDto)
+                .toList();
     }
-}
\ No newline at end of file
+}
@@ -17,14 +17,14 @@ public class GenreService {
         this.genreRepository = genreRepository;
     }
 
-    @Cacheable("genres")
+    @Cacheable(value = "genres", sync = true)
     public List<GenreDto> findAll() {
         return genreRepository.findAll().stream()
                 .map(GenreMapper::mapToGenreDto)
                 .toList();
     }
 
-    @Cacheable(value = "genres", key = "#id")
+    @Cacheable(value = "genres", key = "#id", sync = true)
     public GenreDto findById(Long id) {
         return genreRepository.findById(id)
                 .map(GenreMapper::mapToGenreDto)
@@ -17,14 +17,14 @@ public class MpaRatingService {
         this.mpaRatingRepository = mpaRatingRepository;
     }
 
-    @Cacheable("ratings")
+    @Cacheable(value = "ratings", sync = true)
     public List<MpaRatingDto> findAll() {
         return mpaRatingRepository.findAll().stream()
                 .map(MpaRatingMapper::mapToMpaRatingDto)
                 .toList();
     }
 
-    @Cacheable(value = "ratings", key = "#id")
+    @Cacheable(value = "ratings", key = "#id", sync = true)
     public MpaRatingDto findById(Long id) {
         return mpaRatingRepository.findById(id)
                 .map(MpaRatingMapper::mapToMpaRatingDto)
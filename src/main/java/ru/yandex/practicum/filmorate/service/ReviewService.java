@@ -1,18 +1,20 @@
 package ru.yandex.practicum.filmorate.service;
 
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dto.ReviewDto;
+import ru.yandex.practicum.filmorate.event.ReviewChangedEvent;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.ReviewMapper;
 import ru.yandex.practicum.filmorate.model.EventType;
 import ru.yandex.practicum.filmorate.model.Operation;
 import ru.yandex.practicum.filmorate.model.Review;
-import ru.yandex.practicum.filmorate.storage.EventRepository;
 import ru.yandex.practicum.filmorate.storage.ReviewLikeRepository;
 import ru.yandex.practicum.filmorate.storage.ReviewRepository;
+import ru.yandex.practicum.filmorate.storage.buffer.EventAppender;
 
 import java.util.Comparator;
 import java.util.List;
@@ -21,15 +23,18 @@ import java.util.List;
 public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final ReviewLikeRepository reviewLikeRepository;
-    private final EventRepository eventRepository;
+    private final EventAppender eventAppender;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ReviewService(ReviewRepository reviewRepository, ReviewLikeRepository reviewLikeRepository, EventRepository eventRepository) {
+    public ReviewService(ReviewRepository reviewRepository, ReviewLikeRepository reviewLikeRepository,
+                         EventAppender eventAppender, ApplicationEventPublisher eventPublisher) {
         this.reviewRepository = reviewRepository;
         this.reviewLikeRepository = reviewLikeRepository;
-        this.eventRepository = eventRepository;
+        this.eventAppender = eventAppender;
+        this.eventPublisher = eventPublisher;
     }
 
-    @Cacheable("reviews")
+    @Cacheable(value = "reviews", sync = true)
     public List<ReviewDto> findAll(Long filmId, Integer count) {
         List<Review> reviews = reviewRepository.findAll();
         if (filmId != null) {
@@ -49,7 +54,7 @@ public class ReviewService {
                 .toList();
     }
 
-    @Cacheable(value = "reviews", key = "#id")
+    @Cacheable(value = "reviews", key = "#id", sync = true)
     public ReviewDto findById(long id) {
         return reviewRepository.findById(id)
                 .map(review -> {
@@ -63,21 +68,24 @@ public class ReviewService {
     public ReviewDto create(Review review) {
         Review createdReview = reviewRepository.create(review);
         int useful = reviewRepository.calculateUseful(createdReview.getId());
-        eventRepository.addEvent(review.getUserId(), review.getId(), EventType.REVIEW, Operation.ADD);
+        eventAppender.append(review.getUserId(), review.getId(), EventType.REVIEW, Operation.ADD);
+        eventPublisher.publishEvent(new ReviewChangedEvent(createdReview.getId()));
         return ReviewMapper.mapToReviewDto(createdReview, (long) useful);
     }
 
     public ReviewDto update(Review review) {
         Review updatedReview = reviewRepository.update(review);
         int useful = reviewRepository.calculateUseful(updatedReview.getId());
-        eventRepository.addEvent(updatedReview.getUserId(), updatedReview.getId(), EventType.REVIEW, Operation.UPDATE);
+        eventAppender.append(updatedReview.getUserId(), updatedReview.getId(), EventType.REVIEW, Operation.UPDATE);
+        eventPublisher.publishEvent(new ReviewChangedEvent(updatedReview.getId()));
         return ReviewMapper.mapToReviewDto(updatedReview, (long) useful);
     }
 
     public void delete(Long id) {
         ReviewDto reviewDto = findById(id);
-        eventRepository.addEvent(reviewDto.getUserId(), reviewDto.getReviewId(), EventType.REVIEW, Operation.REMOVE);
+        eventAppender.append(reviewDto.getUserId(), reviewDto.getReviewId(), EventType.REVIEW, Operation.REMOVE);
         reviewRepository.delete(id);
+        eventPublisher.publishEvent(new ReviewChangedEvent(id));
     }
 
     public void addVote(Long reviewId, Long userId, int vote) {
@@ -99,9 +107,11 @@ public class ReviewService {
             }
         }
         reviewLikeRepository.addVote(reviewId, userId, vote);
+        eventPublisher.publishEvent(new ReviewChangedEvent(reviewId));
     }
 
     public void deleteVote(Long reviewId, Long userId) {
         reviewLikeRepository.deleteVote(reviewId, userId);
+        eventPublisher.publishEvent(new ReviewChangedEvent(reviewId));
     }
 }
@@ -1,20 +1,34 @@
 package ru.yandex.practicum.filmorate.service;
 
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+import ru.yandex.practicum.filmorate.dto.FeedCursor;
 import ru.yandex.practicum.filmorate.dto.FilmDto;
 import ru.yandex.practicum.filmorate.dto.UserDto;
+import ru.yandex.practicum.filmorate.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.event.UserSavedEvent;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.mapper.UserMapper;
 import ru.yandex.practicum.filmorate.model.Event;
 import ru.yandex.practicum.filmorate.model.EventType;
+import ru.yandex.practicum.filmorate.model.FilmStats;
 import ru.yandex.practicum.filmorate.model.Operation;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.recommendation.RecommendationEngine;
 import ru.yandex.practicum.filmorate.storage.EventRepository;
+import ru.yandex.practicum.filmorate.storage.FilmStatsRepository;
 import ru.yandex.practicum.filmorate.storage.FriendshipRepository;
 import ru.yandex.practicum.filmorate.storage.LikeRepository;
 import ru.yandex.practicum.filmorate.storage.UserRepository;
+import ru.yandex.practicum.filmorate.storage.buffer.EventAppender;
+import ru.yandex.practicum.filmorate.storage.buffer.LikeWriteBehindBuffer;
+import ru.yandex.practicum.filmorate.storage.index.FriendGraph;
 
 import java.util.*;
 
@@ -23,22 +37,43 @@ public class UserService {
     private final UserRepository userRepository;
     private final FriendshipRepository friendshipRepository;
     private final LikeRepository likeRepository;
+    private final FilmStatsRepository filmStatsRepository;
+    private final LikeWriteBehindBuffer likeBuffer;
     private final FilmService filmService;
     private final EventRepository eventRepository;
+    private final EventAppender eventAppender;
+    private final FriendGraph friendGraph;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, RecommendationEngine> recommendationEngines = new HashMap<>();
+    private final RecommendationProperties recommendationProperties;
 
     public UserService(UserRepository userRepository,
                        FriendshipRepository friendshipRepository,
                        LikeRepository likeRepository,
+                       FilmStatsRepository filmStatsRepository,
+                       LikeWriteBehindBuffer likeBuffer,
                        FilmService filmService,
-                       EventRepository eventRepository) {
+                       EventRepository eventRepository,
+                       EventAppender eventAppender,
+                       FriendGraph friendGraph,
+                       ApplicationEventPublisher eventPublisher,
+                       List<RecommendationEngine> recommendationEngines,
+                       RecommendationProperties recommendationProperties) {
         this.userRepository = userRepository;
         this.friendshipRepository = friendshipRepository;
         this.likeRepository = likeRepository;
+        this.filmStatsRepository = filmStatsRepository;
+        this.likeBuffer = likeBuffer;
         this.filmService = filmService;
         this.eventRepository = eventRepository;
+        this.eventAppender = eventAppender;
+        this.friendGraph = friendGraph;
+        this.eventPublisher = eventPublisher;
+        recommendationEngines.forEach(engine -> this.recommendationEngines.put(engine.name(), engine));
+        this.recommendationProperties = recommendationProperties;
     }
 
-    @Cacheable("users")
+    @Cacheable(value = "users", sync = true)
     public List<UserDto> findAll() {
         return userRepository.findAll()
                 .stream()
@@ -46,7 +81,15 @@ public class UserService {
                 .toList();
     }
 
-    @Cacheable(value = "users", key = "#id")
+    @Cacheable(value = "users", key = "'page_' + #after + '_' + #limit", sync = true)
+    public List<UserDto> findPage(long after, int limit) {
+        return userRepository.findPage(after, limit)
+                .stream()
+                .map(UserMapper::mapToUserDto)
+                .toList();
+    }
+
+    @Cacheable(value = "users", key = "#id", sync = true)
     public UserDto findById(Long id) {
         return userRepository.findById(id)
                 .map(UserMapper::mapToUserDto)
@@ -58,7 +101,17 @@ public class UserService {
             user.setName(user.getLogin());
         }
         checkName(user);
-        return UserMapper.mapToUserDto(userRepository.create(user));
+        User createdUser = userRepository.create(user);
+        eventPublisher.publishEvent(new UserSavedEvent(createdUser.getId()));
+        return UserMapper.mapToUserDto(createdUser);
+    }
+
+    @Transactional
+    public List<Long> createAll(List<User> users) {
+        users.forEach(this::checkName);
+        List<Long> userIds = userRepository.createAll(users);
+        userIds.forEach(userId -> eventPublisher.publishEvent(new UserSavedEvent(userId)));
+        return userIds;
     }
 
     public UserDto update(User newUser) {
@@ -67,77 +120,89 @@ public class UserService {
         }
         checkUserExists(newUser.getId());
         checkName(newUser);
-        return UserMapper.mapToUserDto(userRepository.update(newUser));
+        User updatedUser = userRepository.update(newUser);
+        eventPublisher.publishEvent(new UserSavedEvent(updatedUser.getId()));
+        return UserMapper.mapToUserDto(updatedUser);
     }
 
+    @Transactional
     public void delete(Long id) {
+        likeBuffer.flush();
+        Map<Long, Double> marks = likeRepository.findMarksByUserId(id);
         userRepository.delete(id);
+        filmStatsRepository.applyDeltas(marks.entrySet().stream()
+                .map(mark -> new FilmStats(mark.getKey(), -1L, -mark.getValue(), null))
+                .toList());
+        marks.forEach((filmId, mark) -> eventPublisher.publishEvent(new LikeChangedEvent(filmId, id, null, mark)));
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
     }
 
-    @Cacheable(value = "friends", key = "#receiver")
-    public List<UserDto> getFriends(Long receiver) {
+    public List<UserDto> getFriends(Long receiver, long after, int limit) {
         checkUserExists(receiver);
+        return findUsersInOrder(friendGraph.findFriends(receiver, after, limit));
+    }
 
-        return userRepository.getFriends(receiver)
-                .stream()
-                .map(UserMapper::mapToUserDto)
-                .toList();
+    public int countFriends(Long receiver) {
+        checkUserExists(receiver);
+        return friendGraph.countFriends(receiver);
     }
 
     public void addFriend(Long sender, Long receiver) {
         friendshipRepository.addFriend(sender, receiver);
-        eventRepository.addEvent(receiver, sender, EventType.FRIEND, Operation.ADD);
+        eventPublisher.publishEvent(new FriendshipChangedEvent(sender, receiver, true));
+        eventAppender.append(receiver, sender, EventType.FRIEND, Operation.ADD);
     }
 
     public void deleteFriend(Long sender, Long receiver) {
-        eventRepository.addEvent(receiver, sender, EventType.FRIEND, Operation.REMOVE);
         friendshipRepository.deleteFriend(sender, receiver);
+        eventPublisher.publishEvent(new FriendshipChangedEvent(sender, receiver, false));
+        eventAppender.append(receiver, sender, EventType.FRIEND, Operation.REMOVE);
     }
 
-    @Cacheable(value = "commonFriends", key = "#userId + '_' + #friendId")
     public List<UserDto> getCommonFriends(Long userId, Long friendId) {
-        return userRepository.getCommonFriends(userId, friendId)
-                .stream()
-                .map(UserMapper::mapToUserDto)
-                .toList();
+        return findUsersInOrder(friendGraph.findCommonFriends(userId, friendId));
     }
 
-    @Cacheable(value = "recommendations", key = "#userId")
-    public List<FilmDto> getRecommendationsForUser(Long userId) {
+    @Cacheable(value = "recommendations", key = "{#userId, #engineName, #limit}", sync = true)
+    public List<FilmDto> getRecommendationsForUser(Long userId, String engineName, int limit) {
         checkUserExists(userId);
-        List<Long> filmsLikedByUser = likeRepository.getFilmIdsLikedByUser(userId);
-        if (filmsLikedByUser.isEmpty()) {
-            return List.of();
+        String name = engineName != null ? engineName : recommendationProperties.getEngine();
+        RecommendationEngine engine = recommendationEngines.get(name);
+        if (engine == null) {
+            throw new ValidationException(String.format("Неизвестный алгоритм рекомендаций: %s", name));
         }
-        List<Long> usersWithSameTaste = likeRepository.getUserIdsWhoLikedFilms(filmsLikedByUser, userId);
-        if (usersWithSameTaste.isEmpty()) {
-            return List.of();
+        List<Long> filmIds = engine.recommend(userId, limit);
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < filmIds.size(); i++) {
+            positions.put(filmIds.get(i), i);
         }
-        Map<Long, Set<Long>> userToLikedFilmsMap = likeRepository.getUsersWithLikedFilms(usersWithSameTaste);
-        long nearestUserIdByTaste = userToLikedFilmsMap.keySet().stream()
-                .map((Long id) -> {
-                    List<Long> commonFilmsWithLikes = new ArrayList<>(filmsLikedByUser);
-                    commonFilmsWithLikes.retainAll(userToLikedFilmsMap.get(id));
-                    return Map.of(
-                            "userId", id,
-                            "commonFilms", (long) commonFilmsWithLikes.size()
-                    );
-                })
-                .max(Comparator.comparingLong(m -> m.get("commonFilms")))
-                .orElse(Map.of("userId", -1L))
-                .get("userId");
-
-        if (nearestUserIdByTaste < 0) {
-            return List.of();
-        }
-        Set<Long> recommendations = userToLikedFilmsMap.get(nearestUserIdByTaste);
-        filmsLikedByUser.forEach(recommendations::remove);
-        return filmService.findAllWithIds(recommendations);
+        return filmService.findAllWithIds(positions.keySet()).stream()
+                .sorted(Comparator.comparingInt(film -> positions.get(film.getId())))
+                .toList();
     }
 
-    @Cacheable(value = "events", key = "#id")
     public List<Event> getEventFeed(Long id) {
-        return eventRepository.findFeedForUser(id);
+        eventAppender.awaitAppended();
+        return eventRepository.findFeed(id);
+    }
+
+    public List<Event> getEventFeed(Long id, String since, String before, int limit) {
+        eventAppender.awaitAppended();
+        if (since != null && before == null) {
+            return eventRepository.findFeedSince(id, FeedCursor.after(since), limit);
+        }
+        return eventRepository.findFeedBefore(id, since != null ? FeedCursor.after(since) : FeedCursor.FIRST,
+                before != null ? FeedCursor.before(before) : FeedCursor.LAST, limit);
+    }
+
+    private List<UserDto> findUsersInOrder(List<Long> userIds) {
+        Map<Long, UserDto> usersById = new HashMap<>();
+        userRepository.findAllWithIds(userIds)
+                .forEach(user -> usersById.put(user.getId(), UserMapper.mapToUserDto(user)));
+        return userIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     private void checkUserExists(long userId) {
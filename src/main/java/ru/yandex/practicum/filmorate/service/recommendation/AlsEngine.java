@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+import ru.yandex.practicum.filmorate.model.UserRecommendation;
+import ru.yandex.practicum.filmorate.storage.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.UserRecommendationRepository;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+public class AlsEngine implements RecommendationEngine {
+    public static final String NAME = "als";
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final LikeRepository likeRepository;
+    private final UserRecommendationRepository userRecommendationRepository;
+    private final RecommendationProperties.Als properties;
+    private final boolean enabled;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean training = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+    private ForkJoinPool pool;
+
+    public AlsEngine(LikeRepository likeRepository,
+                     UserRecommendationRepository userRecommendationRepository,
+                     RecommendationProperties properties,
+                     PlatformTransactionManager transactionManager) {
+        this.likeRepository = likeRepository;
+        this.userRecommendationRepository = userRecommendationRepository;
+        this.properties = properties.getAls();
+        this.enabled = this.properties.getEnabled() != null
+                ? this.properties.getEnabled()
+                : NAME.equals(properties.getEngine());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        pool = new ForkJoinPool(properties.getParallelism());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "als-training");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::retrainQuietly, properties.getInitialDelay().toMillis(),
+                properties.getRetrainInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            pool.shutdownNow();
+        }
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<Long> recommend(long userId, int limit) {
+        return userRecommendationRepository.findByUserId(userId, limit).stream()
+                .map(UserRecommendation::getFilmId)
+                .toList();
+    }
+
+    public boolean retrain() {
+        if (pool == null || !training.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long start = System.nanoTime();
+            RatingMatrix.Builder builder = RatingMatrix.builder();
+            likeRepository.forEachMark((filmId, userId, mark) -> builder.add(userId, filmId, mark));
+            RatingMatrix matrix = builder.build();
+            AlsModel model = AlsModel.train(matrix, properties, pool);
+            long trained = System.nanoTime();
+            List<UserRecommendation> recommendations = model.recommendAll(properties.getTopN(), pool);
+            Integer changed = transactionTemplate.execute(status ->
+                    userRecommendationRepository.replaceChanged(recommendations, INSERT_BATCH_SIZE));
+            log.info("Модель ALS обучена: {} пользователей, {} фильмов, {} оценок, обновлены рекомендации "
+                            + "{} пользователей, обучение {} мс, всего {} мс, размер модели {} КБ",
+                    matrix.userCount(), matrix.filmCount(), matrix.size(), changed,
+                    TimeUnit.NANOSECONDS.toMillis(trained - start),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    model.sizeInBytes() / 1024);
+            return true;
+        } finally {
+            training.set(false);
+        }
+    }
+
+    private void retrainQuietly() {
+        try {
+            retrain();
+        } catch (RuntimeException e) {
+            log.error("Не удалось обучить модель ALS", e);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+import ru.yandex.practicum.filmorate.model.UserRecommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+public final class AlsModel {
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    private final RatingMatrix matrix;
+    private final int factors;
+    private final double[] userFactors;
+    private final double[] filmFactors;
+
+    private AlsModel(RatingMatrix matrix, int factors, double[] userFactors, double[] filmFactors) {
+        this.matrix = matrix;
+        this.factors = factors;
+        this.userFactors = userFactors;
+        this.filmFactors = filmFactors;
+    }
+
+    public static AlsModel train(RatingMatrix matrix, RecommendationProperties.Als parameters, ForkJoinPool pool) {
+        int factors = parameters.getFactors();
+        double[] userFactors = new double[matrix.userCount() * factors];
+        double[] filmFactors = new double[matrix.filmCount() * factors];
+        SplittableRandom random = new SplittableRandom(parameters.getSeed());
+        double scale = 1.0 / Math.sqrt(factors);
+        for (int i = 0; i < filmFactors.length; i++) {
+            filmFactors[i] = random.nextDouble() * scale;
+        }
+        for (int iteration = 0; iteration < parameters.getIterations(); iteration++) {
+            double[] filmGram = pool.invoke(new GramTask(filmFactors, factors, 0, matrix.filmCount()));
+            pool.invoke(new SolveTask(matrix.userOffsets(), matrix.userFilms(), matrix.userMarks(),
+                    filmFactors, userFactors, filmGram, factors, parameters, 0, matrix.userCount()));
+            double[] userGram = pool.invoke(new GramTask(userFactors, factors, 0, matrix.userCount()));
+            pool.invoke(new SolveTask(matrix.filmOffsets(), matrix.filmUsers(), matrix.filmMarks(),
+                    userFactors, filmFactors, userGram, factors, parameters, 0, matrix.filmCount()));
+        }
+        return new AlsModel(matrix, factors, userFactors, filmFactors);
+    }
+
+    public double score(int user, int film) {
+        double score = 0;
+        int userBase = user * factors;
+        int filmBase = film * factors;
+        for (int i = 0; i < factors; i++) {
+            score += userFactors[userBase + i] * filmFactors[filmBase + i];
+        }
+        return score;
+    }
+
+    public long sizeInBytes() {
+        return (long) (userFactors.length + filmFactors.length) * Double.BYTES;
+    }
+
+    public RatingMatrix matrix() {
+        return matrix;
+    }
+
+    public List<UserRecommendation> recommendAll(int topN, ForkJoinPool pool) {
+        int[] counts = new int[matrix.userCount()];
+        int[] films = new int[matrix.userCount() * topN];
+        double[] scores = new double[matrix.userCount() * topN];
+        pool.invoke(new RankTask(this, topN, counts, films, scores, 0, matrix.userCount()));
+        List<UserRecommendation> recommendations = new ArrayList<>();
+        for (int user = 0; user < counts.length; user++) {
+            for (int place = 0; place < counts[user]; place++) {
+                int position = user * topN + place;
+                recommendations.add(new UserRecommendation(matrix.userId(user), place + 1,
+                        matrix.filmId(films[position]), scores[position]));
+            }
+        }
+        return recommendations;
+    }
+
+    private static final class GramTask extends RecursiveTask<double[]> {
+        private final double[] vectors;
+        private final int factors;
+        private final int from;
+        private final int to;
+
+        GramTask(double[] vectors, int factors, int from, int to) {
+            this.vectors = vectors;
+            this.factors = factors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD * 16) {
+                int middle = (from + to) >>> 1;
+                GramTask left = new GramTask(vectors, factors, from, middle);
+                left.fork();
+                double[] right = new GramTask(vectors, factors, middle, to).compute();
+                double[] result = left.join();
+                for (int i = 0; i < result.length; i++) {
+                    result[i] += right[i];
+                }
+                return result;
+            }
+            double[] gram = new double[factors * factors];
+            for (int row = from; row < to; row++) {
+                int base = row * factors;
+                for (int i = 0; i < factors; i++) {
+                    double value = vectors[base + i];
+                    for (int j = 0; j < factors; j++) {
+                        gram[i * factors + j] += value * vectors[base + j];
+                    }
+                }
+            }
+            return gram;
+        }
+    }
+
+    private static final class SolveTask extends RecursiveAction {
+        private final int[] offsets;
+        private final int[] columns;
+        private final double[] marks;
+        private final double[] fixed;
+        private final double[] target;
+        private final double[] gram;
+        private final int factors;
+        private final RecommendationProperties.Als parameters;
+        private final int from;
+        private final int to;
+
+        SolveTask(int[] offsets, int[] columns, double[] marks, double[] fixed, double[] target, double[] gram,
+                  int factors, RecommendationProperties.Als parameters, int from, int to) {
+            this.offsets = offsets;
+            this.columns = columns;
+            this.marks = marks;
+            this.fixed = fixed;
+            this.target = target;
+            this.gram = gram;
+            this.factors = factors;
+            this.parameters = parameters;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SolveTask(offsets, columns, marks, fixed, target, gram, factors, parameters,
+                                from, middle),
+                        new SolveTask(offsets, columns, marks, fixed, target, gram, factors, parameters,
+                                middle, to));
+                return;
+            }
+            double[] a = new double[factors * factors];
+            double[] b = new double[factors];
+            for (int row = from; row < to; row++) {
+                solveRow(row, a, b);
+            }
+        }
+
+        private void solveRow(int row, double[] a, double[] b) {
+            System.arraycopy(gram, 0, a, 0, a.length);
+            Arrays.fill(b, 0);
+            for (int i = 0; i < factors; i++) {
+                a[i * factors + i] += parameters.getRegularization();
+            }
+            for (int position = offsets[row]; position < offsets[row + 1]; position++) {
+                int base = columns[position] * factors;
+                double confidence = 1 + parameters.getAlpha() * marks[position];
+                for (int i = 0; i < factors; i++) {
+                    double value = fixed[base + i];
+                    b[i] += confidence * value;
+                    for (int j = 0; j <= i; j++) {
+                        a[i * factors + j] += (confidence - 1) * value * fixed[base + j];
+                    }
+                }
+            }
+            choleskySolve(a, b, factors);
+            System.arraycopy(b, 0, target, row * factors, factors);
+        }
+    }
+
+    private static final class RankTask extends RecursiveAction {
+        private final AlsModel model;
+        private final int topN;
+        private final int[] counts;
+        private final int[] films;
+        private final double[] scores;
+        private final int from;
+        private final int to;
+
+        RankTask(AlsModel model, int topN, int[] counts, int[] films, double[] scores, int from, int to) {
+            this.model = model;
+            this.topN = topN;
+            this.counts = counts;
+            this.films = films;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RankTask(model, topN, counts, films, scores, from, middle),
+                        new RankTask(model, topN, counts, films, scores, middle, to));
+                return;
+            }
+            int[] offsets = model.matrix.userOffsets();
+            int[] userFilms = model.matrix.userFilms();
+            boolean[] seen = new boolean[model.matrix.filmCount()];
+            for (int user = from; user < to; user++) {
+                for (int position = offsets[user]; position < offsets[user + 1]; position++) {
+                    seen[userFilms[position]] = true;
+                }
+                rankUser(user, seen);
+                for (int position = offsets[user]; position < offsets[user + 1]; position++) {
+                    seen[userFilms[position]] = false;
+                }
+            }
+        }
+
+        private void rankUser(int user, boolean[] seen) {
+            int base = user * topN;
+            int size = 0;
+            for (int film = 0; film < seen.length; film++) {
+                if (seen[film]) {
+                    continue;
+                }
+                double score = model.score(user, film);
+                if (size < topN) {
+                    films[base + size] = film;
+                    scores[base + size] = score;
+                    siftUp(base, size++);
+                } else if (score > scores[base]) {
+                    films[base] = film;
+                    scores[base] = score;
+                    siftDown(base, size);
+                }
+            }
+            counts[user] = size;
+            for (int last = size - 1; last > 0; last--) {
+                swap(base, base + last);
+                siftDown(base, last);
+            }
+        }
+
+        private void siftUp(int base, int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (scores[base + parent] <= scores[base + index]) {
+                    return;
+                }
+                swap(base + parent, base + index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int base, int size) {
+            int index = 0;
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && scores[base + left] < scores[base + smallest]) {
+                    smallest = left;
+                }
+                if (right < size && scores[base + right] < scores[base + smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(base + index, base + smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int left, int right) {
+            int film = films[left];
+            films[left] = films[right];
+            films[right] = film;
+            double score = scores[left];
+            scores[left] = scores[right];
+            scores[right] = score;
+        }
+    }
+
+    private static void choleskySolve(double[] a, double[] b, int n) {
+        for (int j = 0; j < n; j++) {
+            double diagonal = a[j * n + j];
+            for (int m = 0; m < j; m++) {
+                diagonal -= a[j * n + m] * a[j * n + m];
+            }
+            diagonal = Math.sqrt(diagonal);
+            a[j * n + j] = diagonal;
+            for (int i = j + 1; i < n; i++) {
+                double value = a[i * n + j];
+                for (int m = 0; m < j; m++) {
+                    value -= a[i * n + m] * a[j * n + m];
+                }
+                a[i * n + j] = value / diagonal;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            double value = b[i];
+            for (int m = 0; m < i; m++) {
+                value -= a[i * n + m] * b[m];
+            }
+            b[i] = value / a[i * n + i];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double value = b[i];
+            for (int m = i + 1; m < n; m++) {
+                value -= a[m * n + i] * b[m];
+            }
+            b[i] = value / a[i * n + i];
+        }
+    }
+}
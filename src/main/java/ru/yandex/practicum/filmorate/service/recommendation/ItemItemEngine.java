@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+
+import java.util.*;
+
+@Component
+@RequiredArgsConstructor
+public class ItemItemEngine implements RecommendationEngine, LikeMatrix.Listener {
+    public static final String NAME = "item";
+    private static final double EPSILON = 1e-9;
+
+    private final LikeMatrix likeMatrix;
+    private final RecommendationProperties properties;
+
+    private final Map<Long, Map<Long, Double>> dots = new HashMap<>();
+    private final Map<Long, Double> squaredNorms = new HashMap<>();
+    private final Map<Long, long[]> neighbours = new HashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        likeMatrix.subscribe(this);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<Long> recommend(long userId, int limit) {
+        Map<Long, Double> marks = likeMatrix.getMarks(userId);
+        if (marks.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        synchronized (this) {
+            marks.forEach((filmId, mark) -> {
+                for (long neighbour : neighboursOf(filmId)) {
+                    if (!marks.containsKey(neighbour)) {
+                        scores.merge(neighbour, mark * similarity(filmId, neighbour), Double::sum);
+                    }
+                }
+            });
+        }
+        return TopScores.top(scores, limit);
+    }
+
+    @Override
+    public synchronized void reset(Map<Long, Map<Long, Double>> userMarks) {
+        dots.clear();
+        squaredNorms.clear();
+        neighbours.clear();
+        for (Map<Long, Double> marks : userMarks.values()) {
+            List<Map.Entry<Long, Double>> entries = List.copyOf(marks.entrySet());
+            for (int i = 0; i < entries.size(); i++) {
+                Map.Entry<Long, Double> left = entries.get(i);
+                squaredNorms.merge(left.getKey(), left.getValue() * left.getValue(), Double::sum);
+                for (int j = i + 1; j < entries.size(); j++) {
+                    Map.Entry<Long, Double> right = entries.get(j);
+                    addDot(left.getKey(), right.getKey(), left.getValue() * right.getValue());
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onMarkChanged(long userId, long filmId, Double previousMark, Double mark,
+                                           Map<Long, Double> userMarks) {
+        double oldValue = previousMark != null ? previousMark : 0.0;
+        double newValue = mark != null ? mark : 0.0;
+        double delta = newValue - oldValue;
+        userMarks.forEach((otherId, otherMark) -> {
+            if (otherId != filmId) {
+                addDot(filmId, otherId, delta * otherMark);
+                neighbours.remove(otherId);
+            }
+        });
+        double norm = squaredNorms.getOrDefault(filmId, 0.0) + newValue * newValue - oldValue * oldValue;
+        if (norm > EPSILON) {
+            squaredNorms.put(filmId, norm);
+        } else {
+            squaredNorms.remove(filmId);
+        }
+        neighbours.remove(filmId);
+    }
+
+    private long[] neighboursOf(long filmId) {
+        return neighbours.computeIfAbsent(filmId, id -> {
+            Map<Long, Double> row = dots.getOrDefault(id, Map.of());
+            Map<Long, Double> similarities = new HashMap<>();
+            row.keySet().forEach(otherId -> similarities.put(otherId, similarity(id, otherId)));
+            return TopScores.top(similarities, properties.getNeighbours()).stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+        });
+    }
+
+    private double similarity(long filmId, long otherId) {
+        double dot = dots.getOrDefault(filmId, Map.of()).getOrDefault(otherId, 0.0);
+        double norms = squaredNorms.getOrDefault(filmId, 0.0) * squaredNorms.getOrDefault(otherId, 0.0);
+        return norms > EPSILON ? dot / Math.sqrt(norms) : 0.0;
+    }
+
+    private void addDot(long filmId, long otherId, double delta) {
+        addDirected(filmId, otherId, delta);
+        addDirected(otherId, filmId, delta);
+    }
+
+    private void addDirected(long filmId, long otherId, double delta) {
+        Map<Long, Double> row = dots.computeIfAbsent(filmId, id -> new HashMap<>());
+        double dot = row.getOrDefault(otherId, 0.0) + delta;
+        if (Math.abs(dot) > EPSILON) {
+            row.put(otherId, dot);
+        } else {
+            row.remove(otherId);
+            if (row.isEmpty()) {
+                dots.remove(filmId);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import java.util.Arrays;
+
+public final class RatingMatrix {
+    private final long[] userIds;
+    private final long[] filmIds;
+    private final int[] userOffsets;
+    private final int[] userFilms;
+    private final double[] userMarks;
+    private final int[] filmOffsets;
+    private final int[] filmUsers;
+    private final double[] filmMarks;
+
+    private RatingMatrix(long[] userIds, long[] filmIds, int[] users, int[] films, double[] marks) {
+        this.userIds = userIds;
+        this.filmIds = filmIds;
+        this.userOffsets = new int[userIds.length + 1];
+        this.userFilms = new int[marks.length];
+        this.userMarks = new double[marks.length];
+        this.filmOffsets = new int[filmIds.length + 1];
+        this.filmUsers = new int[marks.length];
+        this.filmMarks = new double[marks.length];
+        fill(users, films, marks, userOffsets, userFilms, userMarks);
+        fill(films, users, marks, filmOffsets, filmUsers, filmMarks);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public int filmCount() {
+        return filmIds.length;
+    }
+
+    public int size() {
+        return userMarks.length;
+    }
+
+    public long userId(int user) {
+        return userIds[user];
+    }
+
+    public long filmId(int film) {
+        return filmIds[film];
+    }
+
+    int[] userOffsets() {
+        return userOffsets;
+    }
+
+    int[] userFilms() {
+        return userFilms;
+    }
+
+    double[] userMarks() {
+        return userMarks;
+    }
+
+    int[] filmOffsets() {
+        return filmOffsets;
+    }
+
+    int[] filmUsers() {
+        return filmUsers;
+    }
+
+    double[] filmMarks() {
+        return filmMarks;
+    }
+
+    private static void fill(int[] rows, int[] columns, double[] marks,
+                             int[] offsets, int[] targetColumns, double[] targetMarks) {
+        for (int row : rows) {
+            offsets[row + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < rows.length; i++) {
+            int position = next[rows[i]]++;
+            targetColumns[position] = columns[i];
+            targetMarks[position] = marks[i];
+        }
+    }
+
+    public static final class Builder {
+        private long[] users = new long[1024];
+        private long[] films = new long[1024];
+        private double[] marks = new double[1024];
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder add(long userId, long filmId, double mark) {
+            if (size == marks.length) {
+                users = Arrays.copyOf(users, size * 2);
+                films = Arrays.copyOf(films, size * 2);
+                marks = Arrays.copyOf(marks, size * 2);
+            }
+            users[size] = userId;
+            films[size] = filmId;
+            marks[size] = mark;
+            size++;
+            return this;
+        }
+
+        public RatingMatrix build() {
+            long[] userIds = distinctSorted(users, size);
+            long[] filmIds = distinctSorted(films, size);
+            int[] userIndexes = new int[size];
+            int[] filmIndexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                userIndexes[i] = Arrays.binarySearch(userIds, users[i]);
+                filmIndexes[i] = Arrays.binarySearch(filmIds, films[i]);
+            }
+            return new RatingMatrix(userIds, filmIds, userIndexes, filmIndexes, Arrays.copyOf(marks, size));
+        }
+
+        private static long[] distinctSorted(long[] values, int size) {
+            return Arrays.stream(values, 0, size).sorted().distinct().toArray();
+        }
+    }
+}
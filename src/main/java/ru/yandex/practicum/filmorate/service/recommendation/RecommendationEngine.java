@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import java.util.List;
+
+public interface RecommendationEngine {
+    String name();
+
+    List<Long> recommend(long userId, int limit);
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import java.util.*;
+
+final class TopScores {
+    private TopScores() {
+    }
+
+    static List<Long> top(Map<Long, Double> scores, int limit) {
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Long> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().getKey());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+}
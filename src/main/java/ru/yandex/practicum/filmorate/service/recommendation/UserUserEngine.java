@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.storage.index.MinHashIndex;
+
+import java.util.*;
+
+@Component
+@RequiredArgsConstructor
+public class UserUserEngine implements RecommendationEngine {
+    public static final String NAME = "user";
+
+    private final LikeMatrix likeMatrix;
+    private final MinHashIndex minHashIndex;
+    private final RecommendationProperties properties;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<Long> recommend(long userId, int limit) {
+        Map<Long, Double> marks = likeMatrix.getMarks(userId);
+        if (marks.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Map<Long, Double>> candidates = likeMatrix.getMarks(minHashIndex.findCandidates(userId));
+        Map<Long, Double> similarities = new HashMap<>();
+        candidates.forEach((candidateId, candidateMarks) ->
+                similarities.put(candidateId, jaccard(marks.keySet(), candidateMarks.keySet())));
+        Map<Long, Double> scores = new HashMap<>();
+        for (Long neighbourId : TopScores.top(similarities, properties.getSimilarUsers())) {
+            double similarity = similarities.get(neighbourId);
+            candidates.get(neighbourId).forEach((filmId, mark) -> {
+                if (!marks.containsKey(filmId)) {
+                    scores.merge(filmId, similarity * mark, Double::sum);
+                }
+            });
+        }
+        return TopScores.top(scores, limit);
+    }
+
+    static double jaccard(Set<Long> left, Set<Long> right) {
+        Set<Long> smaller = left.size() <= right.size() ? left : right;
+        Set<Long> larger = smaller == left ? right : left;
+        long intersection = smaller.stream().filter(larger::contains).count();
+        long union = left.size() + right.size() - intersection;
+        return union == 0 ? 0.0 : (double) intersection / union;
+    }
+}
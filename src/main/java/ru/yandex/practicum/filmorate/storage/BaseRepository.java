@@ -1,23 +1,42 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.yandex.practicum.filmorate.exception.InternalServerException;
 
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @RequiredArgsConstructor
 public class BaseRepository<T> {
+    protected static final String IDS_PLACEHOLDER = ":IDS";
+    private static final int[] IN_CHUNK_SIZES = {1, 8, 64, 512};
+    private static final int PARALLEL_CHUNKS_THRESHOLD = 4;
+    private static final Map<String, String> CHUNK_QUERIES = new ConcurrentHashMap<>();
+
     private final String serverError = "Не удалось сохранить данные";
     protected final JdbcTemplate jdbc;
     protected final RowMapper<T> mapper;
     private final Class<T> entityType;
+    private ExecutorService executorService;
+
+    @Autowired(required = false)
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
 
     protected Optional<T> findOne(String query, Object... params) {
         try {
@@ -55,10 +74,99 @@ public class BaseRepository<T> {
         }
     }
 
+    protected List<Long> insertAll(String query, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.batchUpdate(connection -> connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Object[] params = rows.get(i);
+                        for (int idx = 0; idx < params.length; idx++) {
+                            ps.setObject(idx + 1, params[idx]);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keyHolder);
+        List<Long> ids = keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+        if (ids.size() != rows.size()) {
+            throw new InternalServerException(serverError);
+        }
+        return ids;
+    }
+
     protected void update(String query, Object... params) {
         int rowsUpdated = jdbc.update(query, params);
         if (rowsUpdated == 0) {
             throw new InternalServerException(serverError);
         }
     }
+
+    protected <R> List<R> findManyWithIds(String query, Collection<Long> ids, RowMapper<R> rowMapper) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        int maxChunkSize = IN_CHUNK_SIZES[IN_CHUNK_SIZES.length - 1];
+        List<Callable<List<R>>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += maxChunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + maxChunkSize, distinctIds.size()));
+            chunks.add(() -> findChunk(query, chunk, rowMapper));
+        }
+        if (chunks.size() < PARALLEL_CHUNKS_THRESHOLD || executorService == null
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            List<R> result = new ArrayList<>();
+            for (Callable<List<R>> chunk : chunks) {
+                result.addAll(call(chunk));
+            }
+            return result;
+        }
+        try {
+            List<R> result = new ArrayList<>();
+            for (Future<List<R>> future : executorService.invokeAll(chunks)) {
+                result.addAll(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException("Запрос по списку идентификаторов прерван");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <R> List<R> findChunk(String query, List<Long> chunk, RowMapper<R> rowMapper) {
+        int size = Arrays.stream(IN_CHUNK_SIZES)
+                .filter(chunkSize -> chunkSize >= chunk.size())
+                .findFirst()
+                .orElseThrow();
+        String chunkQuery = CHUNK_QUERIES.computeIfAbsent(query + "#" + size,
+                key -> query.replace(IDS_PLACEHOLDER, String.join(", ", Collections.nCopies(size, "?"))));
+        Object[] args = new Object[size];
+        for (int i = 0; i < size; i++) {
+            args[i] = chunk.get(Math.min(i, chunk.size() - 1));
+        }
+        return jdbc.query(chunkQuery, rowMapper, args);
+    }
+
+    private static <R> List<R> call(Callable<List<R>> chunk) {
+        try {
+            return chunk.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -6,14 +6,8 @@ import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Director;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.HashMap;
-import java.util.LinkedHashSet;
-import java.util.Map;
 
 @Repository
 public class DirectorRepository extends BaseRepository<Director> {
@@ -27,12 +21,6 @@ public class DirectorRepository extends BaseRepository<Director> {
             "UPDATE directors SET name = ? WHERE id = ?";
     private static final String DELETE_QUERY =
             "DELETE FROM directors WHERE id = ?";
-    private static final String FIND_DIRECTORS_FOR_FILMS_QUERY =
-            "SELECT fd.film_id, d.* " +
-                    "FROM film_directors fd " +
-                    "JOIN directors d ON fd.director_id = d.id " +
-                    "WHERE fd.film_id IN (%s) " +
-                    "ORDER BY fd.film_id, d.id";
     private static final String EXIST_DIRECTOR =  "SELECT COUNT(*) FROM DIRECTORS WHERE id = ?";
 
     public DirectorRepository(JdbcTemplate jdbc, RowMapper<Director> mapper) {
@@ -68,27 +56,6 @@ public class DirectorRepository extends BaseRepository<Director> {
         delete(DELETE_QUERY, id);
     }
 
-    public Map<Long, Set<Director>> findDirectorsForFilms(List<Long> filmIds) {
-        if (filmIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        String inClause = filmIds.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(", "));
-        String query = String.format(FIND_DIRECTORS_FOR_FILMS_QUERY, inClause);
-
-        Map<Long, Set<Director>> directorsByFilm = new HashMap<>();
-        jdbc.query(query, rs -> {
-            Long filmId = rs.getLong("film_id");
-            Director director = new Director(
-                    rs.getLong("id"),
-                    rs.getString("name")
-            );
-            directorsByFilm.computeIfAbsent(filmId, k -> new LinkedHashSet<>()).add(director);
-        });
-        return directorsByFilm;
-    }
-
     public void existById(Long id) {
         Integer countFilms = jdbc.queryForObject(EXIST_DIRECTOR, new Object[]{id}, Integer.class);
         if (countFilms == null || countFilms <= 0) {
@@ -3,33 +3,34 @@ package ru.yandex.practicum.filmorate.storage;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.dto.FeedCursor;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Event;
-import ru.yandex.practicum.filmorate.model.EventType;
-import ru.yandex.practicum.filmorate.model.Operation;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Repository
 public class EventRepository extends BaseRepository<Event> {
     private static final String EXIST_USER = "SELECT COUNT(*) FROM users WHERE id = ?";
-    private static final String EVENTS_FOR_USER_QUERY = """
-                SELECT
-                  e.id AS id,
-                  e.timestamp,
-                  e.user_id AS userId,
-                  et.name AS eventType,
-                  op.name AS operation,
-                  e.entity_id AS entityId
-                  FROM
-                  event e
-                JOIN event_type et ON e.entity_type_id = et.id
-                JOIN operation op ON e.operation_id = op.id
-                WHERE
-                  e.user_id = ?
-                ORDER BY
-                  e.timestamp;
-            """;
+    private static final String FEED_COLUMNS =
+            "SELECT id, timestamp, user_id, entity_type_id, operation_id, entity_id " +
+                    "FROM event ";
+    private static final String FEED_QUERY =
+            FEED_COLUMNS +
+                    "WHERE user_id = ? " +
+                    "ORDER BY timestamp, id";
+    private static final String FEED_FORWARD_QUERY =
+            FEED_COLUMNS +
+                    "WHERE user_id = ? AND (timestamp, id) > (?, ?) " +
+                    "ORDER BY timestamp, id " +
+                    "LIMIT ?";
+    private static final String FEED_BACKWARD_QUERY =
+            FEED_COLUMNS +
+                    "WHERE user_id = ? AND (timestamp, id) > (?, ?) AND (timestamp, id) < (?, ?) " +
+                    "ORDER BY timestamp DESC, id DESC " +
+                    "LIMIT ?";
     private static final String INSERT_EVENT_QUERY =
             "INSERT INTO event (user_id, timestamp, operation_id, entity_id, entity_type_id) " +
                     "VALUES (?, ?, ?, ?, ?)";
@@ -38,42 +39,43 @@ public class EventRepository extends BaseRepository<Event> {
         super(jdbc, mapper, Event.class);
     }
 
-    public List<Event> findFeedForUser(Long id) {
-        Integer count = jdbc.queryForObject(EXIST_USER, new Object[]{id}, Integer.class);
-        if (count == null || count <= 0) {
-            throw new NotFoundException("Пользователь с id = " + id + " не найден");
-        }
-        return findMany(EVENTS_FOR_USER_QUERY, id);
+    public List<Event> findFeed(Long userId) {
+        checkUser(userId);
+        return findMany(FEED_QUERY, userId);
     }
 
-    public void addEvent(Long userId, Long secondId, EventType eventType, Operation operation) {
-        Integer count = jdbc.queryForObject(EXIST_USER, new Object[]{userId}, Integer.class);
-        if (count == null || count <= 0) {
-            throw new NotFoundException("Пользователь с id = " + userId + " не найден");
-        }
-
-        Long timeStamp = System.currentTimeMillis();
-        Long operationId = getOperationId(operation);
-        Long entityTypeId = getEventTypeId(eventType);
+    public List<Event> findFeedSince(Long userId, FeedCursor since, int limit) {
+        checkUser(userId);
+        return findMany(FEED_FORWARD_QUERY, userId, since.timestamp(), since.id(), limit);
+    }
 
-        insert(INSERT_EVENT_QUERY, userId, timeStamp, operationId, secondId, entityTypeId);
+    public List<Event> findFeedBefore(Long userId, FeedCursor since, FeedCursor before, int limit) {
+        checkUser(userId);
+        List<Event> events = new ArrayList<>(findMany(FEED_BACKWARD_QUERY, userId, since.timestamp(), since.id(),
+                before.timestamp(), before.id(), limit));
+        Collections.reverse(events);
+        return events;
     }
 
-    private Long getOperationId(Operation operation) {
-        return switch (operation) {
-            case REMOVE -> 1L;
-            case ADD -> 2L;
-            case UPDATE -> 3L;
-            default -> throw new IllegalArgumentException("Неизвестная операция: " + operation);
-        };
+    public void addEvents(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate(INSERT_EVENT_QUERY, events.stream()
+                .map(event -> new Object[]{
+                        event.getUserId(),
+                        event.getTimestamp(),
+                        event.getOperation().getId(),
+                        event.getEntityId(),
+                        event.getEventType().getId()
+                })
+                .toList());
     }
 
-    private Long getEventTypeId(EventType eventType) {
-        return switch (eventType) {
-            case LIKE -> 1L;
-            case REVIEW -> 2L;
-            case FRIEND -> 3L;
-            default -> throw new IllegalArgumentException("Неизвестное событие: " + eventType);
-        };
+    private void checkUser(Long userId) {
+        Integer count = jdbc.queryForObject(EXIST_USER, Integer.class, userId);
+        if (count == null || count <= 0) {
+            throw new NotFoundException("Пользователь с id = " + userId + " не найден");
+        }
     }
 }
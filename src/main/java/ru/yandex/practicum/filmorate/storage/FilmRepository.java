@@ -9,31 +9,35 @@ import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Director;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.function.Function;
 
 @Repository
 public class FilmRepository extends BaseRepository<Film> {
     private final String notFound = "Фильм с таким id - не найден";
 
     private static final String FIND_ALL_QUERY =
-            "SELECT f.*, r.name AS rating_name " +
+            "SELECT f.*, r.name AS rating_name, COALESCE(fs.rate, 0) AS rate, " +
+                    "(SELECT ARRAY_AGG(ARRAY[CAST(g.id AS VARCHAR), g.name] ORDER BY g.id) FROM film_genres fg " +
+                    "JOIN genres g ON fg.genre_id = g.id WHERE fg.film_id = f.id) AS genres, " +
+                    "(SELECT ARRAY_AGG(ARRAY[CAST(d.id AS VARCHAR), d.name] ORDER BY d.id) FROM film_directors fd " +
+                    "JOIN directors d ON fd.director_id = d.id WHERE fd.film_id = f.id) AS directors " +
                     "FROM films f " +
-                    "LEFT JOIN ratings r ON f.rating_id = r.id";
+                    "LEFT JOIN ratings r ON f.rating_id = r.id " +
+                    "LEFT JOIN film_stats fs ON fs.film_id = f.id";
+
+    private static final String FIND_PAGE_QUERY =
+            FIND_ALL_QUERY + " " +
+                    "WHERE f.id > ? " +
+                    "ORDER BY f.id " +
+                    "LIMIT ?";
 
     private static final String FIND_ALL_WITH_IDS_QUERY =
-            "SELECT f.*, r.name AS rating_name " +
-                    "FROM films f " +
-                    "LEFT JOIN ratings r ON f.rating_id = r.id " +
-                    "WHERE f.id IN (:FILM_IDS)";
+            FIND_ALL_QUERY + " " +
+                    "WHERE f.id IN (" + IDS_PLACEHOLDER + ")";
 
     private static final String FIND_BY_ID_QUERY =
-            "SELECT f.*, r.name AS rating_name " +
-                    "FROM films f " +
-                    "LEFT JOIN ratings r ON f.rating_id = r.id " +
+            FIND_ALL_QUERY + " " +
                     "WHERE f.id = ?";
 
     private static final String INSERT_QUERY =
@@ -49,50 +53,43 @@ public class FilmRepository extends BaseRepository<Film> {
             "DELETE FROM films WHERE id = ?";
 
     private static final String GET_COMMON_FILMS_QUERY =
-            "SELECT f.*, r.name AS rating_name " +
-                    "FROM films f " +
-                    "LEFT JOIN ratings r ON f.rating_id = r.id " +
+            FIND_ALL_QUERY + " " +
                     "JOIN likes l1 ON f.id = l1.film_id " +
                     "JOIN likes l2 ON f.id = l2.film_id " +
                     "WHERE l1.user_id = ? AND l2.user_id = ?";
 
-    private static final String DELETE_GENRES_BY_FILM_ID =
-            "DELETE FROM film_genres WHERE film_id = ?";
+    private static final String REFERENCES_QUERY =
+            "SELECT 'rating' AS kind, id FROM ratings WHERE id = ANY(?) " +
+                    "UNION ALL SELECT 'genre', id FROM genres WHERE id = ANY(?) " +
+                    "UNION ALL SELECT 'director', id FROM directors WHERE id = ANY(?)";
+
+    private static final String REFERENCES_WITH_ASSOCIATIONS_QUERY =
+            REFERENCES_QUERY + " " +
+                    "UNION ALL SELECT 'film', id FROM films WHERE id = ? " +
+                    "UNION ALL SELECT 'film_genre', genre_id FROM film_genres WHERE film_id = ? " +
+                    "UNION ALL SELECT 'film_director', director_id FROM film_directors WHERE film_id = ?";
 
     private static final String INSERT_IN_FILM_GENRES_QUERY =
             "INSERT INTO film_genres(film_id, genre_id) VALUES (?, ?)";
 
-    private static final String CHECK_RATING_QUERY =
-            "SELECT COUNT(*) FROM ratings WHERE id = ?";
-
-    private static final String CHECK_GENRE_QUERY =
-            "SELECT COUNT(*) FROM genres WHERE id = ?";
-
-    private static final String CHECK_ID_QUERY =
-            "SELECT COUNT(*) FROM films WHERE id = ?";
-
-    private static final String DELETE_DIRECTORS_BY_FILM_ID =
-            "DELETE FROM film_directors WHERE film_id = ?";
+    private static final String DELETE_FROM_FILM_GENRES_QUERY =
+            "DELETE FROM film_genres WHERE film_id = ? AND genre_id = ?";
 
     private static final String INSERT_IN_FILM_DIRECTORS_QUERY =
             "INSERT INTO film_directors(film_id, director_id) VALUES (?, ?)";
 
-    private static final String FIND_FILMS_BY_DIRECTOR_QUERY =
-            "SELECT f.*, r.name AS rating_name " +
-                    "FROM films f " +
-                    "JOIN film_directors fd ON f.id = fd.film_id " +
-                    "LEFT JOIN ratings r ON f.rating_id = r.id " +
-                    "WHERE fd.director_id = ?";
+    private static final String DELETE_FROM_FILM_DIRECTORS_QUERY =
+            "DELETE FROM film_directors WHERE film_id = ? AND director_id = ?";
 
-    private static final String SEARCH_BASE_QUERY =
-            "SELECT DISTINCT f.*, r.name as rating_name " +
-                    "FROM films f " +
-                    "LEFT JOIN ratings r ON f.rating_id = r.id " +
-                    "LEFT JOIN film_directors fd ON f.id = fd.film_id " +
-                    "LEFT JOIN directors d ON fd.director_id = d.id";
+    private static final String FIND_FILMS_BY_DIRECTOR_QUERY =
+            FIND_ALL_QUERY + " " +
+                    "JOIN film_directors fdf ON f.id = fdf.film_id " +
+                    "WHERE fdf.director_id = ?";
 
     private static final String SEARCH_BY_TITLE_CONDITION = "LOWER(f.name) LIKE ?";
-    private static final String SEARCH_BY_DIRECTOR_CONDITION = "LOWER(d.name) LIKE ?";
+    private static final String SEARCH_BY_DIRECTOR_CONDITION =
+            "EXISTS (SELECT 1 FROM film_directors sfd JOIN directors sd ON sfd.director_id = sd.id " +
+                    "WHERE sfd.film_id = f.id AND LOWER(sd.name) LIKE ?)";
 
     public FilmRepository(JdbcTemplate jdbc, RowMapper<Film> mapper) {
         super(jdbc, mapper, Film.class);
@@ -102,37 +99,12 @@ public class FilmRepository extends BaseRepository<Film> {
         return findMany(FIND_ALL_QUERY);
     }
 
-    public List<Film> findAllWithIds(Set<Long> filmIds) {
-        if (filmIds.isEmpty()) {
-            return List.of();
-        }
-
-        String query = FIND_ALL_WITH_IDS_QUERY.replace(
-                ":FILM_IDS",
-                filmIds.stream().map(String::valueOf).collect(Collectors.joining(", "))
-        );
-        return findMany(query);
+    public List<Film> findPage(long after, int limit) {
+        return findMany(FIND_PAGE_QUERY, after, limit);
     }
 
-    public List<Film> findAllWithFilters(Integer genreId, Integer year) {
-        if (genreId == null && year == null) {
-            return findAll();
-        }
-
-        StringBuilder queryBuilder = new StringBuilder(FIND_ALL_QUERY);
-        List<String> conditions = new ArrayList<>();
-
-        if (year != null) {
-            conditions.add("YEAR(f.release_date) = " + year);
-        }
-
-        if (genreId != null) {
-            queryBuilder.append(" JOIN film_genres fg ON fg.film_id = f.id");
-            conditions.add("fg.genre_id = " + genreId);
-        }
-
-        queryBuilder.append(" WHERE ").append(String.join(" AND ", conditions));
-        return findMany(queryBuilder.toString());
+    public List<Film> findAllWithIds(Collection<Long> filmIds) {
+        return findManyWithIds(FIND_ALL_WITH_IDS_QUERY, filmIds, mapper);
     }
 
     public Optional<Film> findById(Long id) {
@@ -140,8 +112,11 @@ public class FilmRepository extends BaseRepository<Film> {
     }
 
     public Film create(Film film) {
-        checkRating(film);
-        checkGenre(film);
+        Set<Long> genreIds = idsOf(film.getGenres(), Genre::getId);
+        Set<Long> directorIds = idsOf(film.getDirectors(), Director::getId);
+        References references = findReferences(REFERENCES_QUERY, Set.of(film.getMpaRating().getId()),
+                genreIds, directorIds);
+        references.check(film, genreIds, directorIds);
         long filmId = insert(
                 INSERT_QUERY,
                 film.getName(),
@@ -151,15 +126,22 @@ public class FilmRepository extends BaseRepository<Film> {
                 film.getMpaRating().getId()
         );
         film.setId(filmId);
-        saveGenres(film);
-        saveDirectors(film);
+        applyDiff(INSERT_IN_FILM_GENRES_QUERY, filmId, genreIds, Set.of());
+        applyDiff(INSERT_IN_FILM_DIRECTORS_QUERY, filmId, directorIds, Set.of());
         return findById(filmId).orElseThrow(() -> new NotFoundException(notFound));
     }
 
     public Film update(Film film) {
-        checkId(film);
-        checkRating(film);
-        checkGenre(film);
+        Set<Long> genreIds = idsOf(film.getGenres(), Genre::getId);
+        Set<Long> directorIds = idsOf(film.getDirectors(), Director::getId);
+        References references = findReferences(REFERENCES_WITH_ASSOCIATIONS_QUERY,
+                Set.of(film.getMpaRating().getId()), genreIds, directorIds, film.getId(), film.getId(), film.getId());
+        if (references.ids("film").isEmpty()) {
+            throw new NotFoundException(
+                    String.format("Фильм с таким id: %d - отсутствует", film.getId())
+            );
+        }
+        references.check(film, genreIds, directorIds);
         update(
                 UPDATE_QUERY,
                 film.getName(),
@@ -169,13 +151,54 @@ public class FilmRepository extends BaseRepository<Film> {
                 film.getMpaRating().getId(),
                 film.getId()
         );
-        jdbc.update(DELETE_DIRECTORS_BY_FILM_ID, film.getId());
-        jdbc.update(DELETE_GENRES_BY_FILM_ID, film.getId());
-        saveGenres(film);
-        saveDirectors(film);
+        Set<Long> currentGenreIds = references.ids("film_genre");
+        Set<Long> currentDirectorIds = references.ids("film_director");
+        applyDiff(DELETE_FROM_FILM_GENRES_QUERY, film.getId(), currentGenreIds, genreIds);
+        applyDiff(INSERT_IN_FILM_GENRES_QUERY, film.getId(), genreIds, currentGenreIds);
+        applyDiff(DELETE_FROM_FILM_DIRECTORS_QUERY, film.getId(), currentDirectorIds, directorIds);
+        applyDiff(INSERT_IN_FILM_DIRECTORS_QUERY, film.getId(), directorIds, currentDirectorIds);
         return findById(film.getId()).orElseThrow(() -> new NotFoundException(notFound));
     }
 
+    public List<Long> createAll(List<Film> films) {
+        Set<Long> ratingIds = new HashSet<>();
+        Set<Long> genreIds = new HashSet<>();
+        Set<Long> directorIds = new HashSet<>();
+        for (Film film : films) {
+            ratingIds.add(film.getMpaRating().getId());
+            genreIds.addAll(idsOf(film.getGenres(), Genre::getId));
+            directorIds.addAll(idsOf(film.getDirectors(), Director::getId));
+        }
+        References references = findReferences(REFERENCES_QUERY, ratingIds, genreIds, directorIds);
+        films.forEach(film -> references.check(film, idsOf(film.getGenres(), Genre::getId),
+                idsOf(film.getDirectors(), Director::getId)));
+        List<Long> filmIds = insertAll(INSERT_QUERY, films.stream()
+                .map(film -> new Object[]{
+                        film.getName(),
+                        film.getDescription(),
+                        film.getReleaseDate(),
+                        film.getDuration(),
+                        film.getMpaRating().getId()
+                })
+                .toList());
+        List<Object[]> filmGenres = new ArrayList<>();
+        List<Object[]> filmDirectors = new ArrayList<>();
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            film.setId(filmIds.get(i));
+            idsOf(film.getGenres(), Genre::getId).forEach(id -> filmGenres.add(new Object[]{film.getId(), id}));
+            idsOf(film.getDirectors(), Director::getId)
+                    .forEach(id -> filmDirectors.add(new Object[]{film.getId(), id}));
+        }
+        if (!filmGenres.isEmpty()) {
+            jdbc.batchUpdate(INSERT_IN_FILM_GENRES_QUERY, filmGenres);
+        }
+        if (!filmDirectors.isEmpty()) {
+            jdbc.batchUpdate(INSERT_IN_FILM_DIRECTORS_QUERY, filmDirectors);
+        }
+        return filmIds;
+    }
+
     public void delete(Long id) {
         findById(id).orElseThrow(() -> new NotFoundException(notFound));
         delete(DELETE_QUERY, id);
@@ -189,53 +212,61 @@ public class FilmRepository extends BaseRepository<Film> {
         return jdbc.query(GET_COMMON_FILMS_QUERY, mapper, userId, friendId);
     }
 
-    private void saveGenres(Film film) {
-        if (film.getGenres() == null || film.getGenres().isEmpty()) {
-            return;
-        }
-        for (Genre genre : film.getGenres()) {
-            jdbc.update(INSERT_IN_FILM_GENRES_QUERY, film.getId(), genre.getId());
-        }
+    private References findReferences(String query, Set<Long> ratingIds, Set<Long> genreIds,
+                                      Set<Long> directorIds, Object... params) {
+        Object[] args = new Object[3 + params.length];
+        args[0] = ratingIds.toArray(new Long[0]);
+        args[1] = genreIds.toArray(new Long[0]);
+        args[2] = directorIds.toArray(new Long[0]);
+        System.arraycopy(params, 0, args, 3, params.length);
+        Map<String, Set<Long>> found = new HashMap<>();
+        jdbc.query(query, rs -> {
+            found.computeIfAbsent(rs.getString("kind"), kind -> new HashSet<>()).add(rs.getLong("id"));
+        }, args);
+        return new References(found);
     }
 
-    private void saveDirectors(Film film) {
-        if (film.getDirectors() == null || film.getDirectors().isEmpty()) {
-            return;
-        }
-        for (Director director : film.getDirectors()) {
-            jdbc.update(INSERT_IN_FILM_DIRECTORS_QUERY, film.getId(), director.getId());
+    private void applyDiff(String query, Long filmId, Set<Long> ids, Set<Long> except) {
+        List<Object[]> batch = ids.stream()
+                .filter(id -> !except.contains(id))
+                .map(id -> new Object[]{filmId, id})
+                .toList();
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(query, batch);
         }
     }
 
-    private void checkRating(Film film) {
-        Integer count = jdbc.queryForObject(CHECK_RATING_QUERY, Integer.class, film.getMpaRating().getId());
-        if (count == 0) {
-            throw new ValidationException(
-                    String.format("Рейтинг с таким id: %d - отсутствует", film.getMpaRating().getId())
-            );
+    private static <E> Set<Long> idsOf(Set<E> items, Function<E, Long> idGetter) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (items != null) {
+            items.forEach(item -> ids.add(idGetter.apply(item)));
         }
+        return ids;
     }
 
-    private void checkGenre(Film film) {
-        if (film.getGenres() == null) {
-            return;
+    private record References(Map<String, Set<Long>> found) {
+        Set<Long> ids(String kind) {
+            return found.getOrDefault(kind, Set.of());
         }
-        for (Genre genre : film.getGenres()) {
-            Integer count = jdbc.queryForObject(CHECK_GENRE_QUERY, Integer.class, genre.getId());
-            if (count == 0) {
+
+        void check(Film film, Set<Long> genreIds, Set<Long> directorIds) {
+            if (ids("rating").isEmpty()) {
                 throw new ValidationException(
-                        String.format("Жанр с таким id: %d - отсутствует", genre.getId())
+                        String.format("Рейтинг с таким id: %d - отсутствует", film.getMpaRating().getId())
                 );
             }
-        }
-    }
-
-    void checkId(Film film) {
-        Integer count = jdbc.queryForObject(CHECK_ID_QUERY, Integer.class, film.getId());
-        if (count == 0) {
-            throw new NotFoundException(
-                    String.format("Фильм с таким id: %d - отсутствует", film.getId())
-            );
+            for (Long genreId : genreIds) {
+                if (!ids("genre").contains(genreId)) {
+                    throw new ValidationException(
+                            String.format("Жанр с таким id: %d - отсутствует", genreId)
+                    );
+                }
+            }
+            for (Long directorId : directorIds) {
+                if (!ids("director").contains(directorId)) {
+                    throw new NotFoundException(String.format("Режиссер с id=%d не найден", directorId));
+                }
+            }
         }
     }
 
@@ -254,7 +285,7 @@ public class FilmRepository extends BaseRepository<Film> {
             params.add(searchQuery);
         }
 
-        String fullQuery = SEARCH_BASE_QUERY;
+        String fullQuery = FIND_ALL_QUERY;
         if (!conditions.isEmpty()) {
             fullQuery += " WHERE " + String.join(" OR ", conditions);
         }
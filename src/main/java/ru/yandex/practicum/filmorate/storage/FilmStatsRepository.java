@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+
+import java.util.*;
+
+@Repository
+public class FilmStatsRepository extends BaseRepository<FilmStats> {
+    private static final String INSERT_QUERY =
+            "INSERT INTO film_stats (film_id, likes_count, mark_sum) " +
+                    "VALUES (?, ?, ?)";
+    private static final String APPLY_DELTA_QUERY =
+            "MERGE INTO film_stats fs " +
+                    "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS DOUBLE))) " +
+                    "d(film_id, likes_count, mark_sum) " +
+                    "ON fs.film_id = d.film_id " +
+                    "WHEN MATCHED THEN UPDATE " +
+                    "SET likes_count = fs.likes_count + d.likes_count, mark_sum = fs.mark_sum + d.mark_sum " +
+                    "WHEN NOT MATCHED THEN INSERT (film_id, likes_count, mark_sum) " +
+                    "VALUES (d.film_id, d.likes_count, d.mark_sum)";
+    private static final String FIND_ALL_QUERY =
+            "SELECT * " +
+                    "FROM film_stats";
+    private static final String FIND_BY_FILM_ID_QUERY =
+            "SELECT * " +
+                    "FROM film_stats " +
+                    "WHERE film_id = ?";
+    private static final String RECOMPUTED_STATS =
+            "SELECT f.id AS film_id, COUNT(l.id) AS likes_count, COALESCE(SUM(l.mark), 0) AS mark_sum " +
+                    "FROM films f " +
+                    "LEFT JOIN likes l ON l.film_id = f.id " +
+                    "GROUP BY f.id";
+    private static final String FIND_DRIFTED_QUERY =
+            "SELECT a.film_id, a.likes_count, a.mark_sum, " +
+                    "CASE WHEN a.likes_count = 0 THEN 0 ELSE a.mark_sum / a.likes_count END AS rate " +
+                    "FROM (" + RECOMPUTED_STATS + ") a " +
+                    "LEFT JOIN film_stats fs ON fs.film_id = a.film_id " +
+                    "WHERE fs.film_id IS NULL " +
+                    "OR fs.likes_count <> a.likes_count " +
+                    "OR ABS(fs.mark_sum - a.mark_sum) > 0.000001 " +
+                    "ORDER BY a.film_id";
+    private static final String REBUILD_QUERY =
+            "MERGE INTO film_stats (film_id, likes_count, mark_sum) " +
+                    "KEY(film_id) " +
+                    RECOMPUTED_STATS;
+
+    public FilmStatsRepository(JdbcTemplate jdbc, RowMapper<FilmStats> mapper) {
+        super(jdbc, mapper, FilmStats.class);
+    }
+
+    public void create(Long filmId) {
+        jdbc.update(INSERT_QUERY, filmId, 0, 0.0);
+    }
+
+    public void createAll(List<Long> filmIds) {
+        jdbc.batchUpdate(INSERT_QUERY, filmIds.stream()
+                .map(filmId -> new Object[]{filmId, 0, 0.0})
+                .toList());
+    }
+
+    public void applyDelta(Long filmId, long likesDelta, double markDelta) {
+        jdbc.update(APPLY_DELTA_QUERY, filmId, likesDelta, markDelta);
+    }
+
+    public void applyDeltas(Collection<FilmStats> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate(APPLY_DELTA_QUERY, deltas.stream()
+                .map(delta -> new Object[]{delta.getFilmId(), delta.getLikesCount(), delta.getMarkSum()})
+                .toList());
+    }
+
+    public List<FilmStats> findAll() {
+        return findMany(FIND_ALL_QUERY);
+    }
+
+    public Optional<FilmStats> findByFilmId(Long filmId) {
+        return findOne(FIND_BY_FILM_ID_QUERY, filmId);
+    }
+
+    public List<FilmStats> findDrifted() {
+        return findMany(FIND_DRIFTED_QUERY);
+    }
+
+    public List<FilmStats> rebuild() {
+        List<FilmStats> drifted = findDrifted();
+        if (!drifted.isEmpty()) {
+            jdbc.update(REBUILD_QUERY);
+        }
+        return drifted;
+    }
+}
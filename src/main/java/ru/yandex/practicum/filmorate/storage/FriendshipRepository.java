@@ -7,6 +7,8 @@ import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Friendship;
 
+import java.util.List;
+
 @Repository
 public class FriendshipRepository extends BaseRepository<Friendship> {
     private final String notFound = "Один или оба пользователя не существуют";
@@ -20,6 +22,9 @@ public class FriendshipRepository extends BaseRepository<Friendship> {
     private static final String DELETE_QUERY =
             "DELETE FROM friends " +
             "WHERE sender = ? AND receiver = ?";
+    private static final String FIND_ALL_QUERY =
+            "SELECT * " +
+            "FROM friends";
     private static final String CHECK_USER_QUERY =
             "SELECT COUNT(*) " +
             "FROM users WHERE id = ?";
@@ -28,6 +33,10 @@ public class FriendshipRepository extends BaseRepository<Friendship> {
         super(jdbc, mapper, Friendship.class);
     }
 
+    public List<Friendship> findAll() {
+        return findMany(FIND_ALL_QUERY);
+    }
+
     public void addFriend(Long sender, Long receiver) {
         if (!userExists(sender) || !userExists(receiver)) {
             throw new NotFoundException(notFound);
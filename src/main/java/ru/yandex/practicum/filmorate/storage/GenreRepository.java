@@ -6,7 +6,6 @@ import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Genre;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Repository
 public class GenreRepository extends BaseRepository<Genre> {
@@ -21,7 +20,7 @@ public class GenreRepository extends BaseRepository<Genre> {
             "SELECT fg.id, fg.film_id, g.id AS genre_id, g.name AS genre_name " +
             "FROM film_genres fg " +
             "JOIN genres g ON fg.genre_id = g.id " +
-            "WHERE fg.film_id IN (:filmIds) " +
+            "WHERE fg.film_id IN (" + IDS_PLACEHOLDER + ") " +
             "ORDER BY fg.film_id, g.id ";
 
     public GenreRepository(JdbcTemplate jdbc, RowMapper<Genre> mapper) {
@@ -37,19 +36,12 @@ public class GenreRepository extends BaseRepository<Genre> {
     }
 
     public Map<Long, Set<Genre>> findGenresForFilms(List<Long> filmIds) {
-        if (filmIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        String inClause = filmIds.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(", "));
-        String query = FIND_BY_FILM_IDS_QUERY.replace(":filmIds", inClause);
         Map<Long, Set<Genre>> genresByFilm = new HashMap<>();
-        jdbc.query(query, rs -> {
-            Long filmId = rs.getLong("film_id");
-            Genre genre = new Genre(rs.getLong("genre_id"), rs.getString("genre_name"));
-            genresByFilm.computeIfAbsent(filmId, k -> new LinkedHashSet<>()).add(genre);
-        });
+        findManyWithIds(FIND_BY_FILM_IDS_QUERY, filmIds, (rs, rowNum) -> Map.entry(
+                rs.getLong("film_id"),
+                new Genre(rs.getLong("genre_id"), rs.getString("genre_name"))
+        )).forEach(entry -> genresByFilm.computeIfAbsent(entry.getKey(), k -> new LinkedHashSet<>())
+                .add(entry.getValue()));
         return genresByFilm;
     }
 }
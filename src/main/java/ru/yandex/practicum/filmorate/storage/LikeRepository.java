@@ -1,14 +1,13 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Like;
 
-import java.sql.ResultSet;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Repository
 public class LikeRepository extends BaseRepository<Like> {
@@ -16,10 +15,6 @@ public class LikeRepository extends BaseRepository<Like> {
             "MERGE INTO likes (film_id, user_id, mark) " +
                     "KEY(film_id, user_id) " +
                     "VALUES (?, ?, ?)";
-    private static final String CHECK_REQUEST_QUERY =
-            "SELECT COUNT(*) " +
-                    "FROM likes " +
-                    "WHERE film_id = ? AND user_id = ?";
     private static final String DELETE_QUERY =
             "DELETE FROM likes " +
                     "WHERE film_id = ? AND user_id = ?";
@@ -27,78 +22,110 @@ public class LikeRepository extends BaseRepository<Like> {
             "SELECT * " +
                     "FROM likes " +
                     "WHERE film_id = ?";
-    private static final String FIND_ALL_FILMS_LIKED_BY_USER =
-            "SELECT film_id " +
+    private static final String FIND_ALL_MARKS_QUERY =
+            "SELECT film_id, user_id, mark " +
+                    "FROM likes";
+    private static final String LOCK_FILM_QUERY =
+            "SELECT id " +
+                    "FROM films " +
+                    "WHERE id = ? " +
+                    "FOR UPDATE";
+    private static final String FIND_MARK_CHECKED_QUERY =
+            "SELECT f.id AS film_id, u.id AS user_id, l.mark " +
+                    "FROM (SELECT CAST(? AS BIGINT) AS film_id, CAST(? AS BIGINT) AS user_id) k " +
+                    "LEFT JOIN films f ON f.id = k.film_id " +
+                    "LEFT JOIN users u ON u.id = k.user_id " +
+                    "LEFT JOIN likes l ON l.film_id = k.film_id AND l.user_id = k.user_id";
+    private static final String FIND_MARKS_BY_USER_ID_QUERY =
+            "SELECT film_id, mark " +
                     "FROM likes " +
                     "WHERE user_id = ?";
-    private static final String FIND_USERS_WHO_LIKED_FILMS =
-            "SELECT user_id " +
-                    "FROM likes " +
-                    "WHERE user_id <> ? AND film_id IN (:FILM_IDS)";
-    private static final String FIND_ALL_LIKED_FILMS_FOR_ALL_USERS =
-            "SELECT user_id, film_id " +
+    private static final String FIND_MARK_QUERY =
+            "SELECT mark " +
                     "FROM likes " +
-                    "WHERE user_id IN (:USER_IDS)";
-    private static final String GET_AVERAGE_RATE =
-            "SELECT COALESCE(AVG(mark), 0) AS rate " +
-                    "FROM likes " +
-                    "WHERE film_id = ?";
+                    "WHERE film_id = ? AND user_id = ?";
 
     public LikeRepository(JdbcTemplate jdbc, RowMapper<Like> mapper) {
         super(jdbc, mapper, Like.class);
     }
 
-    public void addLike(Long filmId, Long userId, Double mark) {
-            insert(INSERT_QUERY, filmId, userId, mark);
+    public Optional<Double> addLike(Long filmId, Long userId, Double mark) {
+        Optional<Double> previousMark = lockMark(filmId, userId);
+        insert(INSERT_QUERY, filmId, userId, mark);
+        return previousMark;
     }
 
-    public void deleteLike(Long filmId, Long userId) {
-        Integer count = jdbc.queryForObject(CHECK_REQUEST_QUERY, Integer.class, filmId, userId);
-        if (count == 0) {
-            throw new NotFoundException(String.format("Фильму с id = %d, еще не поставлен поставлена оценка " +
-                    "пользователем с id = %d", filmId, userId));
+    public void mergeAll(List<Object[]> likes) {
+        if (!likes.isEmpty()) {
+            jdbc.batchUpdate(INSERT_QUERY, likes);
         }
+    }
+
+    public Double deleteLike(Long filmId, Long userId) {
+        Double mark = lockMark(filmId, userId).orElseThrow(() -> likeNotFound(filmId, userId));
         delete(DELETE_QUERY, filmId, userId);
+        return mark;
     }
 
-    public List<Like> findLikesByFilmId(Long filmId) {
-        return findMany(FIND_ALL_BY_FILM_ID_QUERY, filmId);
+    public void deleteAll(List<Object[]> likes) {
+        if (!likes.isEmpty()) {
+            jdbc.batchUpdate(DELETE_QUERY, likes);
+        }
     }
 
-    public List<Long> getFilmIdsLikedByUser(long userId) {
-        return jdbc.queryForList(FIND_ALL_FILMS_LIKED_BY_USER, Long.class, userId);
+    public static NotFoundException likeNotFound(Long filmId, Long userId) {
+        return new NotFoundException(String.format(
+                "Фильму с id = %d, еще не поставлен поставлена оценка пользователем с id = %d", filmId, userId));
     }
 
-    public List<Long> getUserIdsWhoLikedFilms(List<Long> filmIds, long ignoreUserId) {
-        if (filmIds.isEmpty()) {
-            return List.of();
-        }
-        String query = FIND_USERS_WHO_LIKED_FILMS.replace(
-                ":FILM_IDS",
-                filmIds.stream().map(String::valueOf).collect(Collectors.joining(", "))
-        );
-        return jdbc.queryForList(query, Long.class, ignoreUserId);
+    public Optional<Double> findMark(Long filmId, Long userId) {
+        List<Double> marks = jdbc.queryForList(FIND_MARK_QUERY, Double.class, filmId, userId);
+        return marks.stream().findFirst();
+    }
+
+    public Map<Long, Double> findMarksByUserId(Long userId) {
+        Map<Long, Double> marks = new HashMap<>();
+        jdbc.query(FIND_MARKS_BY_USER_ID_QUERY, (RowCallbackHandler) rs -> marks.put(
+                rs.getLong("film_id"),
+                rs.getDouble("mark")
+        ), userId);
+        return marks;
     }
 
-    public Map<Long, Set<Long>> getUsersWithLikedFilms(List<Long> userIds) {
-        if (userIds.isEmpty()) {
-            return Map.of();
+    public Optional<Double> findMarkChecked(Long filmId, Long userId) {
+        return jdbc.queryForObject(FIND_MARK_CHECKED_QUERY, (rs, rowNum) -> {
+            if (rs.getObject("film_id") == null) {
+                throw new NotFoundException(String.format("Фильм с id=%d не найден", filmId));
+            }
+            if (rs.getObject("user_id") == null) {
+                throw new NotFoundException(String.format("Пользователь с id=%d не найден", userId));
+            }
+            double mark = rs.getDouble("mark");
+            return rs.wasNull() ? Optional.<Double>empty() : Optional.of(mark);
+        }, filmId, userId);
+    }
+
+    private Optional<Double> lockMark(Long filmId, Long userId) {
+        if (jdbc.queryForList(LOCK_FILM_QUERY, Long.class, filmId).isEmpty()) {
+            throw new NotFoundException(String.format("Фильм с id=%d не найден", filmId));
         }
-        String userIdsCommaSeparated = userIds.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(", "));
-        String query = FIND_ALL_LIKED_FILMS_FOR_ALL_USERS.replace(":USER_IDS", userIdsCommaSeparated);
-        Map<Long, Set<Long>> usersWithLikedFilms = new HashMap<>();
-        jdbc.query(query, (ResultSet rs) -> {
-            long userId = rs.getInt("user_id");
-            long filmId = rs.getInt("film_id");
-            usersWithLikedFilms.putIfAbsent(userId, new HashSet<>());
-            usersWithLikedFilms.get(userId).add(filmId);
-        });
-        return usersWithLikedFilms;
+        return findMarkChecked(filmId, userId);
+    }
+
+    public List<Like> findLikesByFilmId(Long filmId) {
+        return findMany(FIND_ALL_BY_FILM_ID_QUERY, filmId);
+    }
+
+    public void forEachMark(MarkConsumer consumer) {
+        jdbc.query(FIND_ALL_MARKS_QUERY, (RowCallbackHandler) rs -> consumer.accept(
+                rs.getLong("film_id"),
+                rs.getLong("user_id"),
+                rs.getDouble("mark")
+        ));
     }
 
-    public Double getAverageRate(Long filmId) {
-        return jdbc.queryForObject(GET_AVERAGE_RATE, Double.class, filmId);
+    @FunctionalInterface
+    public interface MarkConsumer {
+        void accept(long filmId, long userId, double mark);
     }
 }
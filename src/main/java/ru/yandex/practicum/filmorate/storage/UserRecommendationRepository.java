@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.UserRecommendation;
+
+import java.util.*;
+
+@Repository
+public class UserRecommendationRepository extends BaseRepository<UserRecommendation> {
+    private static final String FIND_BY_USER_QUERY =
+            "SELECT * " +
+                    "FROM user_recommendations " +
+                    "WHERE user_id = ? " +
+                    "ORDER BY place " +
+                    "LIMIT ?";
+    private static final String FIND_ALL_QUERY =
+            "SELECT * " +
+                    "FROM user_recommendations " +
+                    "ORDER BY user_id, place";
+    private static final String DELETE_BY_USER_QUERY =
+            "DELETE FROM user_recommendations WHERE user_id = ?";
+    private static final String INSERT_QUERY =
+            "INSERT INTO user_recommendations (user_id, place, film_id, score) " +
+                    "SELECT u.id, ?, f.id, ? " +
+                    "FROM users u, films f " +
+                    "WHERE u.id = ? AND f.id = ?";
+
+    public UserRecommendationRepository(JdbcTemplate jdbc, RowMapper<UserRecommendation> mapper) {
+        super(jdbc, mapper, UserRecommendation.class);
+    }
+
+    public List<UserRecommendation> findByUserId(Long userId, int limit) {
+        return findMany(FIND_BY_USER_QUERY, userId, limit);
+    }
+
+    public int replaceChanged(List<UserRecommendation> recommendations, int batchSize) {
+        Map<Long, List<Long>> current = filmIdsByUser(findMany(FIND_ALL_QUERY));
+        Map<Long, List<UserRecommendation>> updated = new HashMap<>();
+        recommendations.stream()
+                .sorted(Comparator.comparing(UserRecommendation::getPlace))
+                .forEach(recommendation -> updated
+                        .computeIfAbsent(recommendation.getUserId(), key -> new ArrayList<>())
+                        .add(recommendation));
+        Set<Long> changedUserIds = new HashSet<>(current.keySet());
+        changedUserIds.removeAll(updated.keySet());
+        List<UserRecommendation> inserted = new ArrayList<>();
+        updated.forEach((userId, userRecommendations) -> {
+            List<Long> filmIds = userRecommendations.stream().map(UserRecommendation::getFilmId).toList();
+            if (!filmIds.equals(current.get(userId))) {
+                changedUserIds.add(userId);
+                inserted.addAll(userRecommendations);
+            }
+        });
+        jdbc.batchUpdate(DELETE_BY_USER_QUERY, changedUserIds, batchSize, (ps, userId) -> ps.setLong(1, userId));
+        jdbc.batchUpdate(INSERT_QUERY, inserted, batchSize, (ps, recommendation) -> {
+            ps.setInt(1, recommendation.getPlace());
+            ps.setDouble(2, recommendation.getScore());
+            ps.setLong(3, recommendation.getUserId());
+            ps.setLong(4, recommendation.getFilmId());
+        });
+        return changedUserIds.size();
+    }
+
+    private static Map<Long, List<Long>> filmIdsByUser(List<UserRecommendation> recommendations) {
+        Map<Long, List<Long>> result = new HashMap<>();
+        recommendations.forEach(recommendation -> result
+                .computeIfAbsent(recommendation.getUserId(), key -> new ArrayList<>())
+                .add(recommendation.getFilmId()));
+        return result;
+    }
+}
@@ -8,6 +8,7 @@ import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.sql.Date;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,10 +18,20 @@ public class UserRepository extends BaseRepository<User> {
     private static final String FIND_ALL_QUERY =
             "SELECT * " +
             "FROM users";
+    private static final String FIND_PAGE_QUERY =
+            "SELECT * " +
+            "FROM users " +
+            "WHERE id > ? " +
+            "ORDER BY id " +
+            "LIMIT ?";
     private static final String FIND_BY_ID_QUERY =
             "SELECT * " +
             "FROM users " +
             "WHERE id = ?";
+    private static final String FIND_ALL_WITH_IDS_QUERY =
+            "SELECT * " +
+            "FROM users " +
+            "WHERE id IN (" + IDS_PLACEHOLDER + ")";
     private static final String INSERT_QUERY =
             "INSERT INTO users(email, name, login, birthday) " +
             "VALUES (?, ?, ?, ?)";
@@ -42,6 +53,9 @@ public class UserRepository extends BaseRepository<User> {
             "JOIN friends f1 ON u.id = f1.sender " +
             "JOIN friends f2 ON u.id = f2.sender " +
             "WHERE f1.receiver = ? AND f2.receiver = ?";
+    private static final String FIND_EXISTING_EMAILS_QUERY =
+            "SELECT email " +
+            "FROM users WHERE email = ANY(?)";
     private static final String CHECK_EMAIL_QUERY =
             "SELECT COUNT(*) " +
             "FROM users WHERE email = ?";
@@ -55,6 +69,14 @@ public class UserRepository extends BaseRepository<User> {
         return findMany(FIND_ALL_QUERY);
     }
 
+    public List<User> findPage(long after, int limit) {
+        return findMany(FIND_PAGE_QUERY, after, limit);
+    }
+
+    public List<User> findAllWithIds(Collection<Long> ids) {
+        return findManyWithIds(FIND_ALL_WITH_IDS_QUERY, ids, mapper);
+    }
+
     public Optional<User> findById(Long id) {
         return findOne(FIND_BY_ID_QUERY, id);
     }
@@ -72,6 +94,28 @@ public class UserRepository extends BaseRepository<User> {
         return findById(user.getId()).orElseThrow(() -> new NotFoundException(notFound));
     }
 
+    public List<Long> createAll(List<User> users) {
+        List<String> existingEmails = jdbc.queryForList(FIND_EXISTING_EMAILS_QUERY, String.class,
+                (Object) users.stream().map(User::getEmail).toArray(String[]::new));
+        if (!existingEmails.isEmpty()) {
+            throw new DuplicatedDataException(
+                    String.format("Этот email уже используется: %s", existingEmails.get(0))
+            );
+        }
+        List<Long> ids = insertAll(INSERT_QUERY, users.stream()
+                .map(user -> new Object[]{
+                        user.getEmail(),
+                        user.getName(),
+                        user.getLogin(),
+                        Date.valueOf(user.getBirthday())
+                })
+                .toList());
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(ids.get(i));
+        }
+        return ids;
+    }
+
     public User update(User user) {
         checkEmail(user);
         update(
@@ -0,0 +1,155 @@
+package ru.yandex.practicum.filmorate.storage.buffer;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.config.EventAppenderProperties;
+import ru.yandex.practicum.filmorate.exception.InternalServerException;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventType;
+import ru.yandex.practicum.filmorate.model.Operation;
+import ru.yandex.practicum.filmorate.storage.EventRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class EventAppender {
+    private final EventRepository eventRepository;
+    private final EventAppenderProperties properties;
+    private final BlockingQueue<Event> queue;
+    private final ReentrantLock enqueueLock = new ReentrantLock();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final Object appendedMonitor = new Object();
+    private long appended;
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public EventAppender(EventRepository eventRepository, EventAppenderProperties properties) {
+        this.eventRepository = eventRepository;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getCapacity()));
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::run, "event-appender");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void drain() {
+        running = false;
+        try {
+            worker.join(properties.getFlushTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("При остановке не записано {} событий ленты", queue.size());
+        }
+    }
+
+    public void append(Long userId, Long entityId, EventType eventType, Operation operation) {
+        Event event = new Event();
+        event.setUserId(userId);
+        event.setEntityId(entityId);
+        event.setEventType(eventType);
+        event.setOperation(operation);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    public void awaitAppended() {
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + properties.getFlushTimeout().toNanos();
+        synchronized (appendedMonitor) {
+            while (appended < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    log.warn("События ленты не записаны за {}", properties.getFlushTimeout());
+                    return;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(appendedMonitor, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void enqueue(Event event) {
+        enqueueLock.lock();
+        try {
+            event.setTimestamp(System.currentTimeMillis());
+            queue.put(event);
+            enqueued.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException("Не удалось записать событие ленты");
+        } finally {
+            enqueueLock.unlock();
+        }
+    }
+
+    private void run() {
+        List<Event> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, Math.max(1, properties.getBatchSize()) - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                synchronized (appendedMonitor) {
+                    appended += batch.size();
+                    appendedMonitor.notifyAll();
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Event> batch) {
+        try {
+            eventRepository.addEvents(batch);
+        } catch (RuntimeException e) {
+            log.warn("Пакет из {} событий отклонен, события будут записаны по одному: {}", batch.size(), e.getMessage());
+            for (Event event : batch) {
+                try {
+                    eventRepository.addEvents(List.of(event));
+                } catch (RuntimeException eventException) {
+                    log.error("Событие {} {} пользователя {} потеряно: {}", event.getEventType(),
+                            event.getOperation(), event.getUserId(), eventException.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package ru.yandex.practicum.filmorate.storage.buffer;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.config.LikeWriteBehindProperties;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.storage.FilmStatsRepository;
+import ru.yandex.practicum.filmorate.storage.LikeRepository;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class LikeWriteBehindBuffer {
+    private final LikeRepository likeRepository;
+    private final FilmStatsRepository filmStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LikeWriteBehindProperties properties;
+    private final Stripe[] stripes;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+
+    public LikeWriteBehindBuffer(LikeRepository likeRepository,
+                                 FilmStatsRepository filmStatsRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 LikeWriteBehindProperties properties) {
+        this.likeRepository = likeRepository;
+        this.filmStatsRepository = filmStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.stripes = new Stripe[Math.max(1, properties.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Отложенная запись оценок включена: {} полос, сброс каждые {} мс или по {} оценок",
+                stripes.length, interval, properties.getFlushSize());
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void drain() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Буфер оценок сброшен при остановке");
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int pendingCount() {
+        return pendingCount.get();
+    }
+
+    public Optional<Double> findMark(Long filmId, Long userId) {
+        return Optional.ofNullable(currentMark(new LikeKey(filmId, userId)));
+    }
+
+    public Optional<Double> put(Long filmId, Long userId, Double mark) {
+        LikeKey key = new LikeKey(filmId, userId);
+        Double previousMark = currentMark(key);
+        if (mark == null && previousMark == null) {
+            return Optional.empty();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stage(key, mark);
+                }
+            });
+        } else {
+            stage(key, mark);
+        }
+        return Optional.ofNullable(previousMark);
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<LikeKey, PendingLike> batch = new HashMap<>();
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.inFlight = stripe.pending;
+                    stripe.pending = new HashMap<>();
+                    batch.putAll(stripe.inFlight);
+                }
+            }
+            pendingCount.addAndGet(-batch.size());
+            Map<LikeKey, PendingLike> failed = batch.isEmpty() ? Map.of() : write(batch);
+            List<LikeChangedEvent> compensations = new ArrayList<>();
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.inFlight.keySet().stream()
+                            .filter(failed::containsKey)
+                            .forEach(key -> requeue(stripe, key, failed.get(key), compensations));
+                    stripe.inFlight = Map.of();
+                    stripe.version++;
+                }
+            }
+            compensations.forEach(eventPublisher::publishEvent);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private Double currentMark(LikeKey key) {
+        Stripe stripe = stripeOf(key);
+        while (true) {
+            long version;
+            synchronized (stripe) {
+                PendingLike like = stripe.find(key);
+                if (like != null) {
+                    return like.mark();
+                }
+                version = stripe.version;
+            }
+            Double mark = likeRepository.findMarkChecked(key.filmId(), key.userId()).orElse(null);
+            synchronized (stripe) {
+                if (stripe.version == version && stripe.find(key) == null) {
+                    return mark;
+                }
+            }
+        }
+    }
+
+    private void stage(LikeKey key, Double mark) {
+        Stripe stripe = stripeOf(key);
+        Double previousMark;
+        boolean added;
+        while (true) {
+            long version;
+            synchronized (stripe) {
+                PendingLike pending = stripe.pending.get(key);
+                if (pending != null) {
+                    previousMark = pending.mark();
+                    stripe.pending.put(key, new PendingLike(pending.baseMark(), mark, pending.attempts()));
+                    added = false;
+                    break;
+                }
+                PendingLike inFlight = stripe.inFlight.get(key);
+                if (inFlight != null) {
+                    previousMark = inFlight.mark();
+                    stripe.pending.put(key, new PendingLike(inFlight.mark(), mark, 0));
+                    added = true;
+                    break;
+                }
+                version = stripe.version;
+            }
+            Double baseMark = likeRepository.findMark(key.filmId(), key.userId()).orElse(null);
+            synchronized (stripe) {
+                if (stripe.version == version && stripe.find(key) == null) {
+                    previousMark = baseMark;
+                    stripe.pending.put(key, new PendingLike(baseMark, mark, 0));
+                    added = true;
+                    break;
+                }
+            }
+        }
+        if (!Objects.equals(previousMark, mark)) {
+            eventPublisher.publishEvent(new LikeChangedEvent(key.filmId(), key.userId(), mark, previousMark));
+        }
+        if (added && pendingCount.incrementAndGet() >= properties.getFlushSize() && scheduler != null
+                && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void requeue(Stripe stripe, LikeKey key, PendingLike like, List<LikeChangedEvent> compensations) {
+        PendingLike newer = stripe.pending.get(key);
+        if (newer != null) {
+            stripe.pending.put(key, new PendingLike(like.baseMark(), newer.mark(), newer.attempts()));
+        } else if (like.attempts() + 1 < properties.getMaxAttempts()) {
+            stripe.pending.put(key, new PendingLike(like.baseMark(), like.mark(), like.attempts() + 1));
+            pendingCount.incrementAndGet();
+        } else {
+            log.error("Оценка фильма {} пользователем {} не записана после {} попыток и будет отменена",
+                    key.filmId(), key.userId(), properties.getMaxAttempts());
+            compensations.add(new LikeChangedEvent(key.filmId(), key.userId(), like.baseMark(), like.mark()));
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Не удалось сбросить буфер оценок", e);
+        }
+    }
+
+    private Map<LikeKey, PendingLike> write(Map<LikeKey, PendingLike> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(batch));
+            return Map.of();
+        } catch (RuntimeException e) {
+            log.warn("Пакет из {} оценок отклонен, оценки будут записаны по одной: {}", batch.size(), e.getMessage());
+            Map<LikeKey, PendingLike> failed = new HashMap<>();
+            batch.forEach((key, like) -> {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(Map.of(key, like)));
+                } catch (RuntimeException rowException) {
+                    log.warn("Оценка фильма {} пользователем {} не записана: {}",
+                            key.filmId(), key.userId(), rowException.getMessage());
+                    failed.put(key, like);
+                }
+            });
+            return failed;
+        }
+    }
+
+    private void apply(Map<LikeKey, PendingLike> batch) {
+        List<Object[]> merged = new ArrayList<>();
+        List<Object[]> deleted = new ArrayList<>();
+        Map<Long, FilmStats> deltas = new HashMap<>();
+        batch.forEach((key, like) -> {
+            if (Objects.equals(like.baseMark(), like.mark())) {
+                return;
+            }
+            if (like.mark() != null) {
+                merged.add(new Object[]{key.filmId(), key.userId(), like.mark()});
+            } else {
+                deleted.add(new Object[]{key.filmId(), key.userId()});
+            }
+            FilmStats delta = deltas.computeIfAbsent(key.filmId(), id -> new FilmStats(id, 0L, 0.0, null));
+            delta.setLikesCount(delta.getLikesCount() + (like.mark() != null ? 1 : 0)
+                    - (like.baseMark() != null ? 1 : 0));
+            delta.setMarkSum(delta.getMarkSum() + (like.mark() != null ? like.mark() : 0.0)
+                    - (like.baseMark() != null ? like.baseMark() : 0.0));
+        });
+        likeRepository.mergeAll(merged);
+        likeRepository.deleteAll(deleted);
+        filmStatsRepository.applyDeltas(deltas.values());
+    }
+
+    private Stripe stripeOf(LikeKey key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    private static final class Stripe {
+        private Map<LikeKey, PendingLike> pending = new HashMap<>();
+        private Map<LikeKey, PendingLike> inFlight = Map.of();
+        private long version;
+
+        private PendingLike find(LikeKey key) {
+            PendingLike like = pending.get(key);
+            return like != null ? like : inFlight.get(key);
+        }
+    }
+
+    private record LikeKey(long filmId, long userId) {
+    }
+
+    private record PendingLike(Double baseMark, Double mark, int attempts) {
+    }
+}
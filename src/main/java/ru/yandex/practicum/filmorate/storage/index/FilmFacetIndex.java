@@ -0,0 +1,211 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.dto.FacetCountDto;
+import ru.yandex.practicum.filmorate.dto.FacetFilter;
+import ru.yandex.practicum.filmorate.dto.FacetsDto;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmFacetIndex {
+    private static final int GENRE = 0;
+    private static final int YEAR = 1;
+    private static final int DECADE = 2;
+    private static final int MPA = 3;
+    private static final int FACETS = 4;
+    private static final Comparator<FacetCountDto> BY_COUNT_DESC = Comparator
+            .comparingInt(FacetCountDto::getCount).reversed()
+            .thenComparingLong(FacetCountDto::getValue);
+
+    private final FilmRepository filmRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final List<Long> slotFilms = new ArrayList<>();
+    private final List<List<Set<Long>>> values = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final List<Map<Long, BitSet>> bitmaps = List.of(new HashMap<>(), new HashMap<>(),
+            new HashMap<>(), new HashMap<>());
+
+    @PostConstruct
+    public void load() {
+        List<Film> films = filmRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            films.forEach(this::putFilm);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс фасетов загружен: {} фильмов", films.size());
+    }
+
+    public LongPredicate matcher(FacetFilter filter) {
+        if (filter.isEmpty()) {
+            return filmId -> true;
+        }
+        Set<Long> allowed = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            BitSet matched = refine(null, selections(filter), -1);
+            for (int slot = matched.nextSetBit(0); slot >= 0; slot = matched.nextSetBit(slot + 1)) {
+                allowed.add(slotFilms.get(slot));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return allowed::contains;
+    }
+
+    public FacetsDto count(Collection<Long> filmIds, FacetFilter filter) {
+        List<Set<Long>> selections = selections(filter);
+        List<List<FacetCountDto>> counts = new ArrayList<>(FACETS);
+        lock.readLock().lock();
+        try {
+            BitSet matched = new BitSet(values.size());
+            for (Long filmId : filmIds) {
+                Integer slot = slots.get(filmId);
+                if (slot != null) {
+                    matched.set(slot);
+                }
+            }
+            for (int facet = 0; facet < FACETS; facet++) {
+                BitSet refined = refine(matched, selections, facet);
+                List<FacetCountDto> facetCounts = new ArrayList<>();
+                for (Map.Entry<Long, BitSet> entry : bitmaps.get(facet).entrySet()) {
+                    BitSet intersection = (BitSet) entry.getValue().clone();
+                    intersection.and(refined);
+                    int count = intersection.cardinality();
+                    if (count > 0) {
+                        facetCounts.add(new FacetCountDto(entry.getKey(), count));
+                    }
+                }
+                facetCounts.sort(BY_COUNT_DESC);
+                counts.add(facetCounts);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new FacetsDto(counts.get(GENRE), counts.get(YEAR), counts.get(DECADE), counts.get(MPA));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmSaved(FilmSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(event.film().getId());
+            putFilm(event.film());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(event.filmId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private BitSet refine(BitSet base, List<Set<Long>> selections, int skippedFacet) {
+        BitSet result = base != null ? (BitSet) base.clone() : null;
+        for (int facet = 0; facet < FACETS; facet++) {
+            Set<Long> selected = selections.get(facet);
+            if (facet == skippedFacet || selected.isEmpty()) {
+                continue;
+            }
+            BitSet union = new BitSet(values.size());
+            for (Long value : selected) {
+                BitSet bitmap = bitmaps.get(facet).get(value);
+                if (bitmap != null) {
+                    union.or(bitmap);
+                }
+            }
+            if (result == null) {
+                result = union;
+            } else {
+                result.and(union);
+            }
+        }
+        return result != null ? result : new BitSet();
+    }
+
+    private static List<Set<Long>> selections(FacetFilter filter) {
+        List<Set<Long>> selections = new ArrayList<>(FACETS);
+        selections.add(filter.getGenres());
+        selections.add(toLongs(filter.getYears()));
+        selections.add(toLongs(filter.getDecades()));
+        selections.add(filter.getMpa());
+        return selections;
+    }
+
+    private static Set<Long> toLongs(Set<Integer> values) {
+        Set<Long> result = new HashSet<>();
+        values.forEach(value -> result.add(value.longValue()));
+        return result;
+    }
+
+    private void putFilm(Film film) {
+        Set<Long> genreIds = new HashSet<>();
+        if (film.getGenres() != null) {
+            film.getGenres().forEach(genre -> genreIds.add(genre.getId()));
+        }
+        Integer year = film.getReleaseDate() != null ? film.getReleaseDate().getYear() : null;
+        Long mpaId = film.getMpaRating() != null ? film.getMpaRating().getId() : null;
+        List<Set<Long>> filmValues = List.of(
+                genreIds,
+                year != null ? Set.of(year.longValue()) : Set.of(),
+                year != null ? Set.of(Math.floorDiv(year, 10) * 10L) : Set.of(),
+                mpaId != null ? Set.of(mpaId) : Set.of());
+        Integer slot = freeSlots.poll();
+        if (slot == null) {
+            slot = values.size();
+            values.add(filmValues);
+            slotFilms.add(film.getId());
+        } else {
+            values.set(slot, filmValues);
+            slotFilms.set(slot, film.getId());
+        }
+        for (int facet = 0; facet < FACETS; facet++) {
+            for (Long value : filmValues.get(facet)) {
+                bitmaps.get(facet).computeIfAbsent(value, key -> new BitSet()).set(slot);
+            }
+        }
+        slots.put(film.getId(), slot);
+    }
+
+    private void removeFilm(Long filmId) {
+        Integer slot = slots.remove(filmId);
+        if (slot == null) {
+            return;
+        }
+        List<Set<Long>> filmValues = values.set(slot, null);
+        slotFilms.set(slot, null);
+        for (int facet = 0; facet < FACETS; facet++) {
+            for (Long value : filmValues.get(facet)) {
+                BitSet bitmap = bitmaps.get(facet).get(value);
+                bitmap.clear(slot);
+                if (bitmap.isEmpty()) {
+                    bitmaps.get(facet).remove(value);
+                }
+            }
+        }
+        freeSlots.push(slot);
+    }
+}
@@ -0,0 +1,382 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.config.SearchProperties;
+import ru.yandex.practicum.filmorate.event.DirectorDeletedEvent;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.DirectorRepository;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+@Slf4j
+@Component
+public class FilmRelevanceIndex {
+    private static final int TITLE = 0;
+    private static final int DIRECTOR = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int FIELDS = 3;
+
+    private final FilmRepository filmRepository;
+    private final DirectorRepository directorRepository;
+    private final PopularityIndex popularityIndex;
+    private final SearchProperties.Relevance properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, String> directorNames = new HashMap<>();
+    private final Map<Long, Set<Long>> directorFilms = new HashMap<>();
+    private final FieldIndex[] fields = {new FieldIndex(), new FieldIndex(), new FieldIndex()};
+    private final Map<String, Integer> vocabulary = new HashMap<>();
+    private final Map<String, Set<String>> gramTerms = new HashMap<>();
+
+    public FilmRelevanceIndex(FilmRepository filmRepository,
+                              DirectorRepository directorRepository,
+                              PopularityIndex popularityIndex,
+                              SearchProperties properties) {
+        this.filmRepository = filmRepository;
+        this.directorRepository = directorRepository;
+        this.popularityIndex = popularityIndex;
+        this.properties = properties.getRelevance();
+    }
+
+    @PostConstruct
+    public void load() {
+        List<Director> directors = directorRepository.findAll();
+        List<Film> films = filmRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            directors.forEach(director -> directorNames.put(director.getId(), director.getName()));
+            films.forEach(this::putFilm);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс релевантности загружен: {} фильмов, {} термов", entries.size(), vocabulary.size());
+    }
+
+    public List<Long> search(String query, boolean byTitle, boolean byDirector, int limit, LongPredicate filter) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return top(relevance(query, byTitle, byDirector), limit, filter);
+    }
+
+    public Set<Long> match(String query, boolean byTitle, boolean byDirector) {
+        return relevance(query, byTitle, byDirector).keySet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmSaved(FilmSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(event.film().getId());
+            putFilm(event.film());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(event.filmId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectorSaved(DirectorSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            directorNames.put(event.director().getId(), event.director().getName());
+            reindexDirectors(directorFilms.getOrDefault(event.director().getId(), Set.of()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectorDeleted(DirectorDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            directorNames.remove(event.directorId());
+            Set<Long> filmIds = directorFilms.remove(event.directorId());
+            if (filmIds != null) {
+                filmIds.forEach(filmId -> entries.get(filmId).directorIds.remove(event.directorId()));
+                reindexDirectors(filmIds);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        String normalized = FilmSearchIndex.normalize(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private Map<Long, Double> relevance(String query, boolean byTitle, boolean byDirector) {
+        Map<Long, Double> relevance = new HashMap<>();
+        List<String> tokens = tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty()) {
+            return relevance;
+        }
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                for (Map.Entry<String, Double> expansion : expand(token).entrySet()) {
+                    if (byTitle) {
+                        score(TITLE, properties.getTitleWeight(), expansion, relevance);
+                        score(DESCRIPTION, properties.getDescriptionWeight(), expansion, relevance);
+                    }
+                    if (byDirector) {
+                        score(DIRECTOR, properties.getDirectorWeight(), expansion, relevance);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return relevance;
+    }
+
+    private Map<String, Double> expand(String token) {
+        Map<String, Integer> overlaps = new HashMap<>();
+        Set<String> grams = termGrams(token);
+        for (String gram : grams) {
+            for (String term : gramTerms.getOrDefault(gram, Set.of())) {
+                overlaps.merge(term, 1, Integer::sum);
+            }
+        }
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<String, Integer> overlap : overlaps.entrySet()) {
+            int common = overlap.getValue();
+            if (common < properties.getFuzzySimilarity() * grams.size()) {
+                continue;
+            }
+            double similarity = (double) common / (grams.size() + termGrams(overlap.getKey()).size() - common);
+            if (similarity >= properties.getFuzzySimilarity()) {
+                best.offer(Map.entry(overlap.getKey(), similarity));
+                if (best.size() > properties.getFuzzyExpansions()) {
+                    best.poll();
+                }
+            }
+        }
+        Map<String, Double> expansions = new HashMap<>();
+        best.forEach(entry -> expansions.put(entry.getKey(), entry.getValue()));
+        if (vocabulary.containsKey(token)) {
+            expansions.put(token, 1.0);
+        }
+        return expansions;
+    }
+
+    private void score(int field, double weight, Map.Entry<String, Double> expansion, Map<Long, Double> relevance) {
+        FieldIndex index = fields[field];
+        Postings postings = index.postings.get(expansion.getKey());
+        if (postings == null || weight <= 0) {
+            return;
+        }
+        int documents = entries.size();
+        double idf = Math.log(1 + (documents - postings.size + 0.5) / (postings.size + 0.5));
+        double averageLength = Math.max(1.0, (double) index.totalLength / documents);
+        double k1 = properties.getK1();
+        double b = properties.getB();
+        double factor = weight * expansion.getValue() * idf;
+        for (int i = 0; i < postings.size; i++) {
+            int frequency = postings.frequencies[i];
+            double norm = k1 * (1 - b + b * postings.lengths[i] / averageLength);
+            relevance.merge(postings.filmIds[i], factor * frequency * (k1 + 1) / (frequency + norm), Double::sum);
+        }
+    }
+
+    private List<Long> top(Map<Long, Double> relevance, int limit, LongPredicate filter) {
+        double weight = properties.getPopularityWeight();
+        double maxPopularity = Math.log1p(popularityIndex.getMaxRate());
+        Comparator<Candidate> order = Comparator.comparingDouble(Candidate::score)
+                .thenComparing(Comparator.comparingLong(Candidate::filmId).reversed());
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(limit + 1, order);
+        for (Map.Entry<Long, Double> entry : relevance.entrySet()) {
+            double bound = entry.getValue() * (1 + weight);
+            if (heap.size() == limit && bound < heap.peek().score() || !filter.test(entry.getKey())) {
+                continue;
+            }
+            double popularity = maxPopularity > 0
+                    ? Math.log1p(popularityIndex.getRate(entry.getKey())) / maxPopularity
+                    : 0.0;
+            heap.offer(new Candidate(entry.getKey(), entry.getValue() * (1 + weight * popularity)));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        Long[] result = new Long[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.poll().filmId();
+        }
+        return List.of(result);
+    }
+
+    private void putFilm(Film film) {
+        Set<Long> directorIds = new HashSet<>();
+        if (film.getDirectors() != null) {
+            film.getDirectors().forEach(director -> directorIds.add(director.getId()));
+        }
+        Entry entry = new Entry(directorIds);
+        entries.put(film.getId(), entry);
+        for (Long directorId : directorIds) {
+            directorFilms.computeIfAbsent(directorId, id -> new HashSet<>()).add(film.getId());
+        }
+        index(film.getId(), entry, TITLE, tokenize(film.getName()));
+        index(film.getId(), entry, DESCRIPTION, tokenize(film.getDescription()));
+        index(film.getId(), entry, DIRECTOR, directorTokens(directorIds));
+    }
+
+    private void removeFilm(Long filmId) {
+        Entry entry = entries.remove(filmId);
+        if (entry == null) {
+            return;
+        }
+        for (int field = 0; field < FIELDS; field++) {
+            unindex(filmId, entry, field);
+        }
+        for (Long directorId : entry.directorIds) {
+            Set<Long> films = directorFilms.get(directorId);
+            if (films != null) {
+                films.remove(filmId);
+            }
+        }
+    }
+
+    private void reindexDirectors(Set<Long> filmIds) {
+        for (Long filmId : filmIds) {
+            Entry entry = entries.get(filmId);
+            unindex(filmId, entry, DIRECTOR);
+            index(filmId, entry, DIRECTOR, directorTokens(entry.directorIds));
+        }
+    }
+
+    private List<String> directorTokens(Set<Long> directorIds) {
+        List<String> tokens = new ArrayList<>();
+        for (Long directorId : directorIds) {
+            tokens.addAll(tokenize(directorNames.get(directorId)));
+        }
+        return tokens;
+    }
+
+    private void index(long filmId, Entry entry, int field, List<String> tokens) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+        FieldIndex index = fields[field];
+        for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+            index.postings.computeIfAbsent(frequency.getKey(), term -> new Postings())
+                    .add(filmId, frequency.getValue(), tokens.size());
+            if (vocabulary.merge(frequency.getKey(), 1, Integer::sum) == 1) {
+                for (String gram : termGrams(frequency.getKey())) {
+                    gramTerms.computeIfAbsent(gram, key -> new HashSet<>()).add(frequency.getKey());
+                }
+            }
+        }
+        index.totalLength += tokens.size();
+        entry.terms[field] = frequencies.keySet().toArray(String[]::new);
+        entry.lengths[field] = tokens.size();
+    }
+
+    private void unindex(long filmId, Entry entry, int field) {
+        FieldIndex index = fields[field];
+        for (String term : entry.terms[field]) {
+            Postings postings = index.postings.get(term);
+            postings.remove(filmId);
+            if (postings.size == 0) {
+                index.postings.remove(term);
+            }
+            if (vocabulary.merge(term, -1, Integer::sum) == 0) {
+                vocabulary.remove(term);
+                for (String gram : termGrams(term)) {
+                    Set<String> terms = gramTerms.get(gram);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        gramTerms.remove(gram);
+                    }
+                }
+            }
+        }
+        index.totalLength -= entry.lengths[field];
+        entry.terms[field] = new String[0];
+        entry.lengths[field] = 0;
+    }
+
+    private static Set<String> termGrams(String term) {
+        return FilmSearchIndex.grams("$" + term + "$");
+    }
+
+    private record Candidate(long filmId, double score) {
+    }
+
+    private static final class Entry {
+        private final Set<Long> directorIds;
+        private final String[][] terms = {new String[0], new String[0], new String[0]};
+        private final int[] lengths = new int[FIELDS];
+
+        private Entry(Set<Long> directorIds) {
+            this.directorIds = directorIds;
+        }
+    }
+
+    private static final class FieldIndex {
+        private final Map<String, Postings> postings = new HashMap<>();
+        private long totalLength;
+    }
+
+    private static final class Postings {
+        private long[] filmIds = new long[2];
+        private int[] frequencies = new int[2];
+        private int[] lengths = new int[2];
+        private int size;
+
+        private void add(long filmId, int frequency, int length) {
+            if (size == filmIds.length) {
+                filmIds = Arrays.copyOf(filmIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            filmIds[size] = filmId;
+            frequencies[size] = frequency;
+            lengths[size] = length;
+            size++;
+        }
+
+        private void remove(long filmId) {
+            for (int i = 0; i < size; i++) {
+                if (filmIds[i] == filmId) {
+                    size--;
+                    filmIds[i] = filmIds[size];
+                    frequencies[i] = frequencies[size];
+                    lengths[i] = lengths[size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.event.DirectorDeletedEvent;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.DirectorRepository;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+    static final int GRAM_LENGTH = 3;
+
+    private final FilmRepository filmRepository;
+    private final DirectorRepository directorRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> titles = new HashMap<>();
+    private final Map<Long, String> directorNames = new HashMap<>();
+    private final Map<Long, Set<Long>> filmDirectors = new HashMap<>();
+    private final Map<Long, Set<Long>> directorFilms = new HashMap<>();
+    private final Map<String, Set<Long>> titleGrams = new HashMap<>();
+    private final Map<String, Set<Long>> directorGrams = new HashMap<>();
+
+    @PostConstruct
+    public void load() {
+        List<Director> directors = directorRepository.findAll();
+        List<Film> films = filmRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            directors.forEach(this::putDirector);
+            films.forEach(this::putFilm);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс загружен: {} фильмов, {} режиссеров", films.size(), directors.size());
+    }
+
+    public Set<Long> search(String query, boolean byTitle, boolean byDirector) {
+        String normalized = normalize(query);
+        Set<Long> filmIds = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            if (byTitle) {
+                filmIds.addAll(match(normalized, titles, titleGrams));
+            }
+            if (byDirector) {
+                for (Long directorId : match(normalized, directorNames, directorGrams)) {
+                    filmIds.addAll(directorFilms.getOrDefault(directorId, Set.of()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return filmIds;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmSaved(FilmSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(event.film().getId());
+            putFilm(event.film());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(event.filmId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectorSaved(DirectorSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            String old = directorNames.get(event.director().getId());
+            if (old != null) {
+                unindex(directorGrams, event.director().getId(), old);
+            }
+            putDirector(event.director());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectorDeleted(DirectorDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            String old = directorNames.remove(event.directorId());
+            if (old != null) {
+                unindex(directorGrams, event.directorId(), old);
+            }
+            for (Long filmId : directorFilms.getOrDefault(event.directorId(), Set.of())) {
+                Set<Long> directorIds = filmDirectors.get(filmId);
+                if (directorIds != null) {
+                    directorIds.remove(event.directorId());
+                }
+            }
+            directorFilms.remove(event.directorId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private List<Long> match(String query, Map<Long, String> texts, Map<String, Set<Long>> postings) {
+        Collection<Long> candidates = texts.keySet();
+        if (query.length() >= GRAM_LENGTH) {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(query)) {
+                Set<Long> list = postings.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            candidates = lists.get(0);
+            List<Set<Long>> others = lists.subList(1, lists.size());
+            candidates = candidates.stream()
+                    .filter(id -> others.stream().allMatch(list -> list.contains(id)))
+                    .toList();
+        }
+        return candidates.stream()
+                .filter(id -> texts.get(id).contains(query))
+                .toList();
+    }
+
+    private void putFilm(Film film) {
+        String title = normalize(film.getName());
+        titles.put(film.getId(), title);
+        index(titleGrams, film.getId(), title);
+        Set<Long> directorIds = new HashSet<>();
+        if (film.getDirectors() != null) {
+            film.getDirectors().forEach(director -> directorIds.add(director.getId()));
+        }
+        filmDirectors.put(film.getId(), directorIds);
+        for (Long directorId : directorIds) {
+            directorFilms.computeIfAbsent(directorId, id -> new HashSet<>()).add(film.getId());
+        }
+    }
+
+    private void removeFilm(Long filmId) {
+        String title = titles.remove(filmId);
+        if (title != null) {
+            unindex(titleGrams, filmId, title);
+        }
+        for (Long directorId : filmDirectors.getOrDefault(filmId, Set.of())) {
+            Set<Long> films = directorFilms.get(directorId);
+            if (films != null) {
+                films.remove(filmId);
+            }
+        }
+        filmDirectors.remove(filmId);
+    }
+
+    private void putDirector(Director director) {
+        String name = normalize(director.getName());
+        directorNames.put(director.getId(), name);
+        index(directorGrams, director.getId(), name);
+    }
+
+    private static void index(Map<String, Set<Long>> postings, Long id, String text) {
+        for (String gram : grams(text)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static void unindex(Map<String, Set<Long>> postings, Long id, String text) {
+        for (String gram : grams(text)) {
+            Set<Long> list = postings.get(gram);
+            if (list != null) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+}
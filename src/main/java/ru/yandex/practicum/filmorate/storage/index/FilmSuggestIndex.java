@@ -0,0 +1,252 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.config.SearchProperties;
+import ru.yandex.practicum.filmorate.dto.SuggestionDto;
+import ru.yandex.practicum.filmorate.event.DirectorDeletedEvent;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.DirectorRepository;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmSuggestIndex {
+    private static final Comparator<SuggestionDto> BY_RATE_DESC = Comparator
+            .comparingDouble(SuggestionDto::getRate).reversed()
+            .thenComparing(SuggestionDto::getType)
+            .thenComparing(SuggestionDto::getText);
+
+    private final FilmRepository filmRepository;
+    private final DirectorRepository directorRepository;
+    private final PopularityIndex popularityIndex;
+    private final SearchProperties properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedFilm> films = new HashMap<>();
+    private final Map<Long, IndexedDirector> directors = new HashMap<>();
+    private final Map<Long, Set<Long>> directorFilms = new HashMap<>();
+    private final SuggestTrie trie = new SuggestTrie();
+
+    @PostConstruct
+    public void load() {
+        List<Director> directors = directorRepository.findAll();
+        List<Film> films = filmRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            directors.forEach(this::putDirector);
+            films.forEach(this::putFilm);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс подсказок загружен: {} ключей, {} узлов", trie.size(), trie.nodeCount());
+    }
+
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String normalized = FilmSearchIndex.normalize(prefix).strip();
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Long> refs = trie.find(normalized, properties.getSuggestScanLimit());
+            return refs != null ? rank(refs, limit) : walkRanking(normalized, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmSaved(FilmSavedEvent event) {
+        Film film = event.film();
+        lock.writeLock().lock();
+        try {
+            putFilm(film);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(event.filmId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectorSaved(DirectorSavedEvent event) {
+        Director director = event.director();
+        lock.writeLock().lock();
+        try {
+            putDirector(director);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectorDeleted(DirectorDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            IndexedDirector removed = directors.remove(event.directorId());
+            if (removed != null) {
+                removeKeys(directorRef(event.directorId()), removed.key());
+            }
+            directorFilms.remove(event.directorId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<SuggestionDto> rank(Set<Long> refs, int limit) {
+        List<SuggestionDto> suggestions = new ArrayList<>();
+        for (Long ref : refs) {
+            suggestions.add(toSuggestion(ref));
+        }
+        suggestions.sort(BY_RATE_DESC);
+        return suggestions.size() > limit ? List.copyOf(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    private List<SuggestionDto> walkRanking(String prefix, int limit) {
+        List<SuggestionDto> suggestions = new ArrayList<>();
+        popularityIndex.forEachRanked(filmId -> {
+            IndexedFilm film = films.get(filmId);
+            if (film == null) {
+                return true;
+            }
+            double rate = popularityIndex.getRate(filmId);
+            if (startsWithWord(film.key(), prefix)) {
+                suggestions.add(new SuggestionDto(SuggestionDto.Type.FILM, filmId, film.title(), rate));
+            }
+            for (long directorId : film.directorIds()) {
+                IndexedDirector director = directors.get(directorId);
+                if (director != null && startsWithWord(director.key(), prefix)
+                        && !containsDirector(suggestions, directorId)) {
+                    suggestions.add(new SuggestionDto(SuggestionDto.Type.DIRECTOR, directorId, director.name(), rate));
+                }
+            }
+            return suggestions.size() < limit;
+        });
+        return suggestions.size() > limit ? List.copyOf(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    private static boolean containsDirector(List<SuggestionDto> suggestions, long directorId) {
+        for (SuggestionDto suggestion : suggestions) {
+            if (suggestion.getType() == SuggestionDto.Type.DIRECTOR && suggestion.getId() == directorId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SuggestionDto toSuggestion(long ref) {
+        long id = ref >> 1;
+        if ((ref & 1) == 0) {
+            return new SuggestionDto(SuggestionDto.Type.FILM, id, films.get(id).title(), popularityIndex.getRate(id));
+        }
+        double rate = directorFilms.getOrDefault(id, Set.of()).stream()
+                .mapToDouble(popularityIndex::getRate)
+                .max()
+                .orElse(0.0);
+        return new SuggestionDto(SuggestionDto.Type.DIRECTOR, id, directors.get(id).name(), rate);
+    }
+
+    private void putFilm(Film film) {
+        removeFilm(film.getId());
+        long[] directorIds = film.getDirectors() == null ? new long[0] : film.getDirectors().stream()
+                .mapToLong(Director::getId)
+                .distinct()
+                .toArray();
+        for (long directorId : directorIds) {
+            directorFilms.computeIfAbsent(directorId, id -> new HashSet<>()).add(film.getId());
+        }
+        String key = addKeys(filmRef(film.getId()), film.getName());
+        films.put(film.getId(), new IndexedFilm(film.getName(), key, directorIds));
+    }
+
+    private void removeFilm(long filmId) {
+        IndexedFilm removed = films.remove(filmId);
+        if (removed == null) {
+            return;
+        }
+        for (long directorId : removed.directorIds()) {
+            Set<Long> linked = directorFilms.get(directorId);
+            if (linked != null) {
+                linked.remove(filmId);
+            }
+        }
+        removeKeys(filmRef(filmId), removed.key());
+    }
+
+    private void putDirector(Director director) {
+        IndexedDirector previous = directors.get(director.getId());
+        if (previous != null) {
+            removeKeys(directorRef(director.getId()), previous.key());
+        }
+        String key = addKeys(directorRef(director.getId()), director.getName());
+        directors.put(director.getId(), new IndexedDirector(director.getName(), key));
+    }
+
+    private String addKeys(long ref, String text) {
+        String normalized = FilmSearchIndex.normalize(text);
+        forEachWordStart(normalized, start -> trie.add(normalized, start, ref));
+        return normalized;
+    }
+
+    private void removeKeys(long ref, String normalized) {
+        forEachWordStart(normalized, start -> trie.remove(normalized, start, ref));
+    }
+
+    private static void forEachWordStart(String text, IntConsumer action) {
+        for (int i = 0; i < text.length(); i++) {
+            if (isWordStart(text, i)) {
+                action.accept(i);
+            }
+        }
+    }
+
+    private static boolean startsWithWord(String normalized, String prefix) {
+        for (int i = 0; i + prefix.length() <= normalized.length(); i++) {
+            if (isWordStart(normalized, i) && normalized.startsWith(prefix, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordStart(String text, int position) {
+        return Character.isLetterOrDigit(text.charAt(position))
+                && (position == 0 || !Character.isLetterOrDigit(text.charAt(position - 1)));
+    }
+
+    private static long filmRef(long filmId) {
+        return filmId << 1;
+    }
+
+    private static long directorRef(long directorId) {
+        return directorId << 1 | 1;
+    }
+
+    private record IndexedFilm(String title, String key, long[] directorIds) {
+    }
+
+    private record IndexedDirector(String name, String key) {
+    }
+}
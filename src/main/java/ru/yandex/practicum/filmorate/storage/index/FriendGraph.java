@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.storage.FriendshipRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FriendGraph {
+    private static final long[] EMPTY = new long[0];
+
+    private final FriendshipRepository friendshipRepository;
+
+    private final Map<Long, long[]> friends = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> friendOf = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        Map<Long, List<Long>> friendLists = new HashMap<>();
+        Map<Long, List<Long>> friendOfLists = new HashMap<>();
+        List<Friendship> friendships = friendshipRepository.findAll();
+        for (Friendship friendship : friendships) {
+            friendLists.computeIfAbsent(friendship.getReceiver(), id -> new ArrayList<>()).add(friendship.getSender());
+            friendOfLists.computeIfAbsent(friendship.getSender(), id -> new ArrayList<>()).add(friendship.getReceiver());
+        }
+        friendLists.forEach((userId, ids) -> friends.put(userId, toSortedArray(ids)));
+        friendOfLists.forEach((userId, ids) -> friendOf.put(userId, toSortedArray(ids)));
+        log.info("Граф друзей загружен: {} связей", friendships.size());
+    }
+
+    public List<Long> findFriends(long userId, long after, int limit) {
+        long[] ids = friends.getOrDefault(userId, EMPTY);
+        int from = Arrays.binarySearch(ids, after);
+        from = from >= 0 ? from + 1 : -from - 1;
+        List<Long> page = new ArrayList<>(Math.min(limit, ids.length - from));
+        for (int i = from; i < ids.length && page.size() < limit; i++) {
+            page.add(ids[i]);
+        }
+        return page;
+    }
+
+    public int countFriends(long userId) {
+        return friends.getOrDefault(userId, EMPTY).length;
+    }
+
+    public List<Long> findCommonFriends(long userId, long otherId) {
+        long[] left = friends.getOrDefault(userId, EMPTY);
+        long[] right = friends.getOrDefault(otherId, EMPTY);
+        List<Long> common = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                common.add(left[i]);
+                i++;
+                j++;
+            }
+        }
+        return common;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFriendshipChanged(FriendshipChangedEvent event) {
+        if (event.added()) {
+            friends.compute(event.receiver(), (id, ids) -> insert(ids, event.sender()));
+            friendOf.compute(event.sender(), (id, ids) -> insert(ids, event.receiver()));
+        } else {
+            friends.computeIfPresent(event.receiver(), (id, ids) -> remove(ids, event.sender()));
+            friendOf.computeIfPresent(event.sender(), (id, ids) -> remove(ids, event.receiver()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        long userId = event.userId();
+        for (long receiver : friendOf.getOrDefault(userId, EMPTY)) {
+            friends.computeIfPresent(receiver, (id, ids) -> remove(ids, userId));
+        }
+        for (long sender : friends.getOrDefault(userId, EMPTY)) {
+            friendOf.computeIfPresent(sender, (id, ids) -> remove(ids, userId));
+        }
+        friends.remove(userId);
+        friendOf.remove(userId);
+    }
+
+    private static long[] toSortedArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    private static long[] insert(long[] ids, long value) {
+        if (ids == null) {
+            return new long[]{value};
+        }
+        int position = Arrays.binarySearch(ids, value);
+        if (position >= 0) {
+            return ids;
+        }
+        position = -position - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(ids, position, result, position + 1, ids.length - position);
+        return result;
+    }
+
+    private static long[] remove(long[] ids, long value) {
+        int position = Arrays.binarySearch(ids, value);
+        if (position < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.storage.LikeRepository;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeMatrix {
+    private final LikeRepository likeRepository;
+
+    private final Map<Long, Map<Long, Double>> userMarks = new HashMap<>();
+    private final Map<Long, Set<Long>> filmUsers = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public synchronized void load() {
+        userMarks.clear();
+        filmUsers.clear();
+        likeRepository.forEachMark((filmId, userId, mark) -> {
+            userMarks.computeIfAbsent(userId, id -> new HashMap<>()).put(filmId, mark);
+            filmUsers.computeIfAbsent(filmId, id -> new HashSet<>()).add(userId);
+        });
+        listeners.forEach(listener -> listener.reset(Collections.unmodifiableMap(userMarks)));
+        log.info("Матрица оценок загружена: {} пользователей, {} фильмов", userMarks.size(), filmUsers.size());
+    }
+
+    public synchronized void subscribe(Listener listener) {
+        listener.reset(Collections.unmodifiableMap(userMarks));
+        listeners.add(listener);
+    }
+
+    public synchronized Map<Long, Double> getMarks(long userId) {
+        return Map.copyOf(userMarks.getOrDefault(userId, Map.of()));
+    }
+
+    public synchronized Map<Long, Map<Long, Double>> getMarks(Collection<Long> userIds) {
+        Map<Long, Map<Long, Double>> marks = new HashMap<>();
+        for (Long userId : userIds) {
+            Map<Long, Double> userMarks = this.userMarks.get(userId);
+            if (userMarks != null) {
+                marks.put(userId, Map.copyOf(userMarks));
+            }
+        }
+        return marks;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onLikeChanged(LikeChangedEvent event) {
+        set(event.userId(), event.filmId(), event.mark());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onFilmDeleted(FilmDeletedEvent event) {
+        for (Long userId : List.copyOf(filmUsers.getOrDefault(event.filmId(), Set.of()))) {
+            set(userId, event.filmId(), null);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserDeleted(UserDeletedEvent event) {
+        for (Long filmId : List.copyOf(userMarks.getOrDefault(event.userId(), Map.of()).keySet())) {
+            set(event.userId(), filmId, null);
+        }
+    }
+
+    private void set(long userId, long filmId, Double mark) {
+        if (mark == null && !userMarks.containsKey(userId)) {
+            return;
+        }
+        Map<Long, Double> marks = userMarks.computeIfAbsent(userId, id -> new HashMap<>());
+        Double previousMark = mark != null ? marks.put(filmId, mark) : marks.remove(filmId);
+        if (Objects.equals(previousMark, mark)) {
+            return;
+        }
+        if (mark == null) {
+            Set<Long> users = filmUsers.get(filmId);
+            users.remove(userId);
+            if (users.isEmpty()) {
+                filmUsers.remove(filmId);
+            }
+        } else if (previousMark == null) {
+            filmUsers.computeIfAbsent(filmId, id -> new HashSet<>()).add(userId);
+        }
+        Map<Long, Double> view = Collections.unmodifiableMap(marks);
+        listeners.forEach(listener -> listener.onMarkChanged(userId, filmId, previousMark, mark, view));
+        if (marks.isEmpty()) {
+            userMarks.remove(userId);
+        }
+    }
+
+    public interface Listener {
+        void reset(Map<Long, Map<Long, Double>> userMarks);
+
+        void onMarkChanged(long userId, long filmId, Double previousMark, Double mark, Map<Long, Double> userMarks);
+    }
+}
@@ -0,0 +1,145 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+@Component
+public class MinHashIndex implements LikeMatrix.Listener {
+    private final LikeMatrix likeMatrix;
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+
+    private final Map<Long, long[]> signatures = new HashMap<>();
+    private final List<Map<Long, Set<Long>>> buckets = new ArrayList<>();
+
+    public MinHashIndex(LikeMatrix likeMatrix, RecommendationProperties properties) {
+        this.likeMatrix = likeMatrix;
+        this.bands = properties.getLshBands();
+        this.rows = properties.getLshRows();
+        RandomGenerator random = new SplittableRandom(properties.getLshSeed());
+        this.seeds = random.longs(bands * rows).toArray();
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        likeMatrix.subscribe(this);
+    }
+
+    public synchronized Set<Long> findCandidates(long userId) {
+        long[] signature = signatures.get(userId);
+        if (signature == null) {
+            return Set.of();
+        }
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < bands; band++) {
+            candidates.addAll(buckets.get(band).getOrDefault(bandHash(signature, band), Set.of()));
+        }
+        candidates.remove(userId);
+        return candidates;
+    }
+
+    @Override
+    public synchronized void reset(Map<Long, Map<Long, Double>> userMarks) {
+        signatures.clear();
+        buckets.forEach(Map::clear);
+        userMarks.forEach((userId, marks) -> link(userId, signatureOf(marks.keySet())));
+    }
+
+    @Override
+    public synchronized void onMarkChanged(long userId, long filmId, Double previousMark, Double mark,
+                                           Map<Long, Double> userMarks) {
+        if (previousMark != null && mark != null) {
+            return;
+        }
+        long[] old = signatures.get(userId);
+        if (mark == null && old != null && !definesSignature(old, filmId)) {
+            return;
+        }
+        long[] updated;
+        if (mark != null && old != null) {
+            updated = old.clone();
+            for (int i = 0; i < seeds.length; i++) {
+                updated[i] = Math.min(updated[i], hash(filmId, i));
+            }
+        } else {
+            updated = userMarks.isEmpty() ? null : signatureOf(userMarks.keySet());
+        }
+        if (old != null && Arrays.equals(old, updated)) {
+            return;
+        }
+        if (old != null) {
+            unlink(userId, old);
+        }
+        if (updated != null) {
+            link(userId, updated);
+        }
+    }
+
+    private boolean definesSignature(long[] signature, long filmId) {
+        for (int i = 0; i < seeds.length; i++) {
+            if (signature[i] == hash(filmId, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void link(long userId, long[] signature) {
+        signatures.put(userId, signature);
+        for (int band = 0; band < bands; band++) {
+            buckets.get(band).computeIfAbsent(bandHash(signature, band), hash -> new HashSet<>()).add(userId);
+        }
+    }
+
+    private void unlink(long userId, long[] signature) {
+        signatures.remove(userId);
+        for (int band = 0; band < bands; band++) {
+            Map<Long, Set<Long>> bandBuckets = buckets.get(band);
+            long key = bandHash(signature, band);
+            Set<Long> users = bandBuckets.get(key);
+            if (users != null) {
+                users.remove(userId);
+                if (users.isEmpty()) {
+                    bandBuckets.remove(key);
+                }
+            }
+        }
+    }
+
+    private long[] signatureOf(Collection<Long> filmIds) {
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long filmId : filmIds) {
+            for (int i = 0; i < seeds.length; i++) {
+                signature[i] = Math.min(signature[i], hash(filmId, i));
+            }
+        }
+        return signature;
+    }
+
+    private long bandHash(long[] signature, int band) {
+        long hash = band;
+        for (int row = band * rows; row < (band + 1) * rows; row++) {
+            hash = mix(hash * 31 + signature[row]);
+        }
+        return hash;
+    }
+
+    private long hash(long filmId, int function) {
+        return mix(filmId ^ seeds[function]);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,204 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmStatsRebuiltEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.FilmStatsRepository;
+import ru.yandex.practicum.filmorate.storage.GenreRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.LongPredicate;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PopularityIndex {
+    private static final Comparator<Entry> BY_RATE_DESC = Comparator
+            .comparingDouble(Entry::rate).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final FilmRepository filmRepository;
+    private final GenreRepository genreRepository;
+    private final FilmStatsRepository filmStatsRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<RankingKey, NavigableSet<Entry>> rankings = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        List<Film> films = filmRepository.findAll();
+        Map<Long, Set<Genre>> genres = genreRepository.findGenresForFilms(films.stream().map(Film::getId).toList());
+        Map<Long, FilmStats> stats = new HashMap<>();
+        filmStatsRepository.findAll().forEach(filmStats -> stats.put(filmStats.getFilmId(), filmStats));
+        for (Film film : films) {
+            FilmStats filmStats = stats.get(film.getId());
+            long likesCount = filmStats != null ? filmStats.getLikesCount() : 0;
+            double markSum = filmStats != null ? filmStats.getMarkSum() : 0.0;
+            Set<Long> genreIds = genreIds(genres.getOrDefault(film.getId(), Set.of()));
+            put(new Entry(film.getId(), yearOf(film), genreIds, likesCount, markSum));
+        }
+        log.info("Индекс популярности загружен: {} фильмов", entries.size());
+    }
+
+    public List<Long> findTop(int count, Integer genreId, Integer year) {
+        NavigableSet<Entry> ranking = rankings.get(new RankingKey(
+                genreId != null ? genreId.longValue() : null, year));
+        if (ranking == null || count <= 0) {
+            return List.of();
+        }
+        Set<Long> top = new LinkedHashSet<>();
+        for (Entry entry : ranking) {
+            top.add(entry.filmId());
+            if (top.size() >= count) {
+                break;
+            }
+        }
+        return new ArrayList<>(top);
+    }
+
+    public void forEachRanked(LongPredicate action) {
+        NavigableSet<Entry> ranking = rankings.get(new RankingKey(null, null));
+        if (ranking == null) {
+            return;
+        }
+        for (Entry entry : ranking) {
+            if (!action.test(entry.filmId())) {
+                return;
+            }
+        }
+    }
+
+    public double getMaxRate() {
+        NavigableSet<Entry> ranking = rankings.get(new RankingKey(null, null));
+        if (ranking == null) {
+            return 0.0;
+        }
+        return ranking.stream().findFirst().map(Entry::rate).orElse(0.0);
+    }
+
+    public double getRate(long filmId) {
+        Entry entry = entries.get(filmId);
+        return entry != null ? entry.rate() : 0.0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikeChanged(LikeChangedEvent event) {
+        entries.computeIfPresent(event.filmId(), (id, old) -> {
+            Entry updated = new Entry(id, old.year(), old.genreIds(),
+                    old.likesCount() + event.likesDelta(), old.markSum() + event.markDelta());
+            unlink(old);
+            link(updated);
+            return updated;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatsRebuilt(FilmStatsRebuiltEvent event) {
+        Map<Long, FilmStats> stats = new HashMap<>();
+        filmStatsRepository.findAll().forEach(filmStats -> stats.put(filmStats.getFilmId(), filmStats));
+        for (Long filmId : entries.keySet()) {
+            FilmStats filmStats = stats.get(filmId);
+            entries.computeIfPresent(filmId, (id, old) -> {
+                Entry updated = new Entry(id, old.year(), old.genreIds(),
+                        filmStats != null ? filmStats.getLikesCount() : 0,
+                        filmStats != null ? filmStats.getMarkSum() : 0.0);
+                unlink(old);
+                link(updated);
+                return updated;
+            });
+        }
+        log.info("Индекс популярности синхронизирован с film_stats: {} фильмов", entries.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmSaved(FilmSavedEvent event) {
+        Film film = event.film();
+        entries.compute(film.getId(), (id, old) -> {
+            Entry updated = new Entry(id, yearOf(film), genreIds(film.getGenres()),
+                    old != null ? old.likesCount() : 0, old != null ? old.markSum() : 0.0);
+            if (old != null) {
+                unlink(old);
+            }
+            link(updated);
+            return updated;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        entries.computeIfPresent(event.filmId(), (id, old) -> {
+            unlink(old);
+            return null;
+        });
+    }
+
+    private void put(Entry entry) {
+        entries.compute(entry.filmId(), (id, old) -> {
+            if (old != null) {
+                unlink(old);
+            }
+            link(entry);
+            return entry;
+        });
+    }
+
+    private void link(Entry entry) {
+        for (RankingKey key : keysOf(entry)) {
+            rankings.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(BY_RATE_DESC)).add(entry);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        for (RankingKey key : keysOf(entry)) {
+            NavigableSet<Entry> ranking = rankings.get(key);
+            if (ranking != null) {
+                ranking.remove(entry);
+            }
+        }
+    }
+
+    private List<RankingKey> keysOf(Entry entry) {
+        List<RankingKey> keys = new ArrayList<>();
+        keys.add(new RankingKey(null, null));
+        keys.add(new RankingKey(null, entry.year()));
+        for (Long genreId : entry.genreIds()) {
+            keys.add(new RankingKey(genreId, null));
+            keys.add(new RankingKey(genreId, entry.year()));
+        }
+        return keys;
+    }
+
+    private static Integer yearOf(Film film) {
+        return film.getReleaseDate() != null ? film.getReleaseDate().getYear() : null;
+    }
+
+    private static Set<Long> genreIds(Set<Genre> genres) {
+        if (genres == null) {
+            return Set.of();
+        }
+        Set<Long> ids = new HashSet<>();
+        genres.forEach(genre -> ids.add(genre.getId()));
+        return Set.copyOf(ids);
+    }
+
+    private record RankingKey(Long genreId, Integer year) {
+    }
+
+    private record Entry(long filmId, Integer year, Set<Long> genreIds, long likesCount, double markSum) {
+        double rate() {
+            return likesCount == 0 ? 0.0 : markSum / likesCount;
+        }
+    }
+}
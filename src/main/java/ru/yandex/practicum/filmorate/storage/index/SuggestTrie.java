@@ -0,0 +1,207 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.*;
+
+public final class SuggestTrie {
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final long[] NO_REFS = new long[0];
+
+    private final Node root = new Node("", 0, 0);
+    private int size;
+    private int nodeCount = 1;
+
+    public int size() {
+        return size;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public void add(String text, int start, long ref) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int position = start;
+        while (position < text.length()) {
+            path.add(node);
+            char first = text.charAt(position);
+            int index = node.indexOf(first);
+            if (index < 0) {
+                Node leaf = new Node(text, start, text.length() - start);
+                node.insertChild(-index - 1, first, leaf);
+                nodeCount++;
+                node = leaf;
+                break;
+            }
+            Node child = node.children[index];
+            int matched = child.match(node.depth, text, position);
+            if (node.depth + matched < child.depth) {
+                Node middle = new Node(child.text, child.start, node.depth + matched);
+                middle.insertChild(0, child.text.charAt(child.start + middle.depth), child);
+                middle.keyCount = child.keyCount;
+                node.children[index] = middle;
+                nodeCount++;
+                child = middle;
+            }
+            node = child;
+            position += matched;
+        }
+        if (node.addRef(ref)) {
+            path.forEach(parent -> parent.keyCount++);
+            node.keyCount++;
+            size++;
+        }
+    }
+
+    public void remove(String text, int start, long ref) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int position = start;
+        while (position < text.length()) {
+            int index = node.indexOf(text.charAt(position));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            int matched = child.match(node.depth, text, position);
+            if (node.depth + matched < child.depth) {
+                return;
+            }
+            path.add(node);
+            node = child;
+            position += matched;
+        }
+        if (!node.removeRef(ref)) {
+            return;
+        }
+        path.forEach(parent -> parent.keyCount--);
+        node.keyCount--;
+        size--;
+        for (int i = path.size() - 1; i >= 0 && node.refCount == 0 && node.children.length <= 1; i--) {
+            Node parent = path.get(i);
+            int index = parent.indexOf(node.text.charAt(node.start + parent.depth));
+            if (node.children.length == 0) {
+                parent.removeChild(index);
+            } else {
+                parent.children[index] = node.children[0];
+            }
+            nodeCount--;
+            node = parent;
+        }
+    }
+
+    public Set<Long> find(String prefix, int maxKeys) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            int index = node.indexOf(prefix.charAt(position));
+            if (index < 0) {
+                return Set.of();
+            }
+            Node child = node.children[index];
+            int matched = child.match(node.depth, prefix, position);
+            if (position + matched < prefix.length() && node.depth + matched < child.depth) {
+                return Set.of();
+            }
+            node = child;
+            position += matched;
+        }
+        if (node.keyCount > maxKeys) {
+            return null;
+        }
+        Set<Long> refs = new HashSet<>();
+        collect(node, refs);
+        return refs;
+    }
+
+    private static void collect(Node node, Set<Long> refs) {
+        for (int i = 0; i < node.refCount; i++) {
+            refs.add(node.refs[i]);
+        }
+        for (Node child : node.children) {
+            collect(child, refs);
+        }
+    }
+
+    private static final class Node {
+        private final String text;
+        private final int start;
+        private final int depth;
+        private char[] firstChars = NO_CHARS;
+        private Node[] children = NO_NODES;
+        private long[] refs = NO_REFS;
+        private int refCount;
+        private int keyCount;
+
+        private Node(String text, int start, int depth) {
+            this.text = text;
+            this.start = start;
+            this.depth = depth;
+        }
+
+        private int match(int parentDepth, String key, int position) {
+            int labelStart = start + parentDepth;
+            int length = Math.min(depth - parentDepth, key.length() - position);
+            int matched = 0;
+            while (matched < length && text.charAt(labelStart + matched) == key.charAt(position + matched)) {
+                matched++;
+            }
+            return matched;
+        }
+
+        private int indexOf(char first) {
+            return Arrays.binarySearch(firstChars, first);
+        }
+
+        private void insertChild(int index, char first, Node child) {
+            char[] chars = new char[firstChars.length + 1];
+            Node[] nodes = new Node[children.length + 1];
+            System.arraycopy(firstChars, 0, chars, 0, index);
+            System.arraycopy(children, 0, nodes, 0, index);
+            chars[index] = first;
+            nodes[index] = child;
+            System.arraycopy(firstChars, index, chars, index + 1, firstChars.length - index);
+            System.arraycopy(children, index, nodes, index + 1, children.length - index);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        private void removeChild(int index) {
+            char[] chars = new char[firstChars.length - 1];
+            Node[] nodes = new Node[children.length - 1];
+            System.arraycopy(firstChars, 0, chars, 0, index);
+            System.arraycopy(children, 0, nodes, 0, index);
+            System.arraycopy(firstChars, index + 1, chars, index, chars.length - index);
+            System.arraycopy(children, index + 1, nodes, index, nodes.length - index);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        private boolean addRef(long ref) {
+            for (int i = 0; i < refCount; i++) {
+                if (refs[i] == ref) {
+                    return false;
+                }
+            }
+            if (refCount == refs.length) {
+                refs = Arrays.copyOf(refs, Math.max(1, refCount * 2));
+            }
+            refs[refCount++] = ref;
+            return true;
+        }
+
+        private boolean removeRef(long ref) {
+            for (int i = 0; i < refCount; i++) {
+                if (refs[i] == ref) {
+                    refs[i] = refs[--refCount];
+                    if (refCount == 0) {
+                        refs = NO_REFS;
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -15,10 +15,10 @@ public class EventRowMapper implements RowMapper<Event> {
     public Event mapRow(ResultSet resultSet, int rowNum) throws SQLException {
         Event event = new Event();
         event.setEventId(resultSet.getLong("id"));
-        event.setEventType(EventType.valueOf(resultSet.getString("eventType")));
-        event.setOperation(Operation.valueOf(resultSet.getString("operation")));
-        event.setUserId(resultSet.getLong("userId"));
-        event.setEntityId(resultSet.getLong("entityId"));
+        event.setEventType(EventType.fromId(resultSet.getLong("entity_type_id")));
+        event.setOperation(Operation.fromId(resultSet.getLong("operation_id")));
+        event.setUserId(resultSet.getLong("user_id"));
+        event.setEntityId(resultSet.getLong("entity_id"));
         event.setTimestamp(resultSet.getLong("timestamp"));
         return event;
     }
@@ -2,11 +2,17 @@ package ru.yandex.practicum.filmorate.storage.mappers;
 
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 
+import java.sql.Array;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.BiFunction;
 
 @Component
 public class FilmRowMapper implements RowMapper<Film> {
@@ -25,7 +31,21 @@ public class FilmRowMapper implements RowMapper<Film> {
             mpaRating.setName(resultSet.getString("rating_name"));
             film.setMpaRating(mpaRating);
         }
+        film.setRate(resultSet.getDouble("rate"));
+        film.setGenres(mapPairs(resultSet.getArray("genres"), Genre::new));
+        film.setDirectors(mapPairs(resultSet.getArray("directors"), Director::new));
         return film;
     }
-}
 
+    private static <T> Set<T> mapPairs(Array pairs, BiFunction<Long, String, T> factory) throws SQLException {
+        Set<T> result = new LinkedHashSet<>();
+        if (pairs == null) {
+            return result;
+        }
+        for (Object element : (Object[]) pairs.getArray()) {
+            Object[] pair = (Object[]) ((Array) element).getArray();
+            result.add(factory.apply(Long.valueOf((String) pair[0]), (String) pair[1]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.storage.mappers;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+public class FilmStatsRowMapper implements RowMapper<FilmStats> {
+    @Override
+    public FilmStats mapRow(ResultSet rs, int rowNum) throws SQLException {
+        FilmStats stats = new FilmStats();
+        stats.setFilmId(rs.getLong("film_id"));
+        stats.setLikesCount(rs.getLong("likes_count"));
+        stats.setMarkSum(rs.getDouble("mark_sum"));
+        stats.setRate(rs.getDouble("rate"));
+        return stats;
+    }
+}
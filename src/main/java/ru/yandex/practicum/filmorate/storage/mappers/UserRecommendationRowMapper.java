@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.storage.mappers;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.UserRecommendation;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+public class UserRecommendationRowMapper implements RowMapper<UserRecommendation> {
+    @Override
+    public UserRecommendation mapRow(ResultSet rs, int rowNum) throws SQLException {
+        UserRecommendation recommendation = new UserRecommendation();
+        recommendation.setUserId(rs.getLong("user_id"));
+        recommendation.setPlace(rs.getInt("place"));
+        recommendation.setFilmId(rs.getLong("film_id"));
+        recommendation.setScore(rs.getDouble("score"));
+        return recommendation;
+    }
+}
@@ -30,3 +30,11 @@ VALUES
 (1, 'REMOVE'),
 (2, 'ADD'),
 (3, 'UPDATE');
+
+-- Заполнение агрегатов оценок для фильмов, у которых их еще нет
+INSERT INTO film_stats (film_id, likes_count, mark_sum)
+SELECT f.id, COUNT(l.id), COALESCE(SUM(l.mark), 0)
+FROM films f
+LEFT JOIN likes l ON l.film_id = f.id
+WHERE NOT EXISTS (SELECT 1 FROM film_stats fs WHERE fs.film_id = f.id)
+GROUP BY f.id;
@@ -15,6 +15,8 @@ CREATE TABLE IF NOT EXISTS friends (
     FOREIGN KEY (receiver) REFERENCES users(id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS friends_receiver_idx ON friends(receiver, sender);
+
 CREATE TABLE IF NOT EXISTS ratings (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     name VARCHAR NOT NULL
@@ -39,6 +41,16 @@ CREATE TABLE IF NOT EXISTS likes (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS film_stats (
+    film_id BIGINT PRIMARY KEY,
+    likes_count BIGINT NOT NULL DEFAULT 0,
+    mark_sum DOUBLE NOT NULL DEFAULT 0,
+    rate DOUBLE GENERATED ALWAYS AS (CASE WHEN likes_count = 0 THEN 0 ELSE mark_sum / likes_count END),
+    FOREIGN KEY (film_id) REFERENCES films(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS film_stats_rate_idx ON film_stats(rate);
+
 CREATE TABLE IF NOT EXISTS genres (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     name VARCHAR(50) NOT NULL
@@ -106,4 +118,14 @@ CREATE TABLE IF NOT EXISTS event (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS event_user_timestamp_idx ON event(user_id, timestamp, id);
 
+CREATE TABLE IF NOT EXISTS user_recommendations (
+    user_id BIGINT NOT NULL,
+    place INT NOT NULL,
+    film_id BIGINT NOT NULL,
+    score DOUBLE NOT NULL,
+    PRIMARY KEY (user_id, place),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (film_id) REFERENCES films(id) ON DELETE CASCADE
+);
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import ru.yandex.practicum.filmorate.dto.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryCacheSerializerTest {
+    private final BinaryCacheSerializer serializer = new BinaryCacheSerializer(512);
+
+    @Test
+    void serializer_RoundTripsCachedDtosWithNullsAndCompression() {
+        FilmDto film = film(1L, "Матрица");
+        FilmDto sparse = new FilmDto();
+        sparse.setId(2L);
+        sparse.setRate(-1.5);
+        UserDto user = new UserDto();
+        user.setId(3L);
+        user.setLogin("neo");
+        user.setBirthday(LocalDate.of(1964, 9, 2));
+        ReviewDto review = new ReviewDto();
+        review.setReviewId(4L);
+        review.setContent("Отлично");
+        review.setIsPositive(false);
+        review.setUseful(-3L);
+
+        for (Object value : List.of(film, sparse, user, review, List.of(film, sparse), "page_0_10", 42L,
+                NullValue.INSTANCE, Map.of("key", 1), new RefreshableValue(List.of(film), 1_700_000_000_000L),
+                new CachedMiss("Фильм с id=5 не найден", 1_700_000_010_000L))) {
+            assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+        }
+        assertThat(serializer.deserialize(serializer.serialize(null))).isNull();
+
+        List<FilmDto> catalog = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            catalog.add(film(id, "Фильм " + id));
+        }
+        byte[] compressed = serializer.serialize(catalog);
+        assertThat(compressed[1]).isEqualTo((byte) 1);
+        assertThat(compressed.length).isLessThan(new BinaryCacheSerializer(0).serialize(catalog).length);
+        assertThat(serializer.deserialize(compressed)).isEqualTo(catalog);
+    }
+
+    @Test
+    void serializer_ReadsLegacyEntriesAndSkipsNewerVersions() {
+        FilmDto film = film(1L, "Матрица");
+
+        assertThat(serializer.deserialize(RedisSerializer.java().serialize(List.of(film)))).isEqualTo(List.of(film));
+        byte[] previous = serializer.serialize(film);
+        previous[0] = 1;
+        assertThat(serializer.deserialize(previous)).isEqualTo(film);
+        byte[] newer = serializer.serialize(film);
+        newer[0] = BinaryCacheSerializer.VERSION + 1;
+        assertThat(serializer.deserialize(newer)).isNull();
+    }
+
+    private static FilmDto film(Long id, String name) {
+        MpaRatingDto mpa = new MpaRatingDto();
+        mpa.setId(4L);
+        mpa.setName("R");
+        GenreDto genre = new GenreDto();
+        genre.setId(6L);
+        genre.setName("Боевик");
+        DirectorDto director = new DirectorDto();
+        director.setId(1L);
+        director.setName("Лана Вачовски");
+        FilmDto film = new FilmDto();
+        film.setId(id);
+        film.setName(name);
+        film.setDescription("Хакер узнает правду о реальности и вступает в борьбу с машинами");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(136);
+        film.setMpa(mpa);
+        film.setGenres(Set.of(genre));
+        film.setRate(8.7);
+        film.setDirectors(Set.of(director));
+        return film;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import ru.yandex.practicum.filmorate.dto.DirectorDto;
+import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.GenreDto;
+import ru.yandex.practicum.filmorate.dto.MpaRatingDto;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Размер и скорость кодирования значений кэша: JSON с метаданными классов, стандартная Java-сериализация
+ * и бинарный кодек с LZ4 на одиночном фильме, странице из 100 фильмов и каталоге из 10 000 фильмов.
+ * Запуск: mvn test -Dtest=CacheCodecBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CacheCodecBenchmarkTest {
+    private static final int CATALOG = 10_000;
+    private static final String[] GENRES = {"Комедия", "Драма", "Мультфильм", "Триллер", "Документальный",
+            "Боевик"};
+    private static final String[] MPA = {"G", "PG", "PG-13", "R", "NC-17"};
+
+    private final Random random = new Random(42);
+
+    @Test
+    void measureCodecs() {
+        List<FilmDto> catalog = new ArrayList<>();
+        for (long id = 1; id <= CATALOG; id++) {
+            catalog.add(film(id));
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("filmById", catalog.get(0));
+        values.put("page(100)", new ArrayList<>(catalog.subList(0, 100)));
+        values.put("films(10k)", catalog);
+
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.EVERYTHING,
+                JsonTypeInfo.As.PROPERTY);
+        Map<String, RedisSerializer<Object>> codecs = new LinkedHashMap<>();
+        codecs.put("json", new GenericJackson2JsonRedisSerializer(mapper));
+        codecs.put("jdk", RedisSerializer.java());
+        codecs.put("binary", new BinaryCacheSerializer(0));
+        codecs.put("binary+lz4", new BinaryCacheSerializer(2048));
+
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            int iterations = Math.max(20, 200_000 / sizeOf(value.getValue()));
+            for (Map.Entry<String, RedisSerializer<Object>> codec : codecs.entrySet()) {
+                report(value.getKey(), codec.getKey(), codec.getValue(), value.getValue(), iterations);
+            }
+        }
+    }
+
+    private void report(String valueName, String codecName, RedisSerializer<Object> codec, Object value,
+                        int iterations) {
+        byte[] bytes = codec.serialize(value);
+        assertThat(codec.deserialize(bytes)).isEqualTo(value);
+        for (int i = 0; i < iterations; i++) {
+            codec.deserialize(codec.serialize(value));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bytes = codec.serialize(value);
+        }
+        long encode = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            codec.deserialize(bytes);
+        }
+        long decode = System.nanoTime() - start;
+        System.out.printf("%-11s %-11s bytes=%-9d bytes/film=%-6d encode=%.1f us decode=%.1f us%n",
+                valueName, codecName, bytes.length, bytes.length / sizeOf(value),
+                encode / 1e3 / iterations, decode / 1e3 / iterations);
+    }
+
+    private static int sizeOf(Object value) {
+        return value instanceof Collection<?> collection ? collection.size() : 1;
+    }
+
+    private FilmDto film(long id) {
+        FilmDto film = new FilmDto();
+        film.setId(id);
+        film.setName("Фильм номер " + id);
+        film.setDescription(description());
+        film.setReleaseDate(LocalDate.of(1950 + random.nextInt(75), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        film.setDuration(80 + random.nextInt(100));
+        MpaRatingDto mpa = new MpaRatingDto();
+        mpa.setId(1L + random.nextInt(MPA.length));
+        mpa.setName(MPA[mpa.getId().intValue() - 1]);
+        film.setMpa(mpa);
+        Set<GenreDto> genres = new HashSet<>();
+        for (int i = random.nextInt(3); i >= 0; i--) {
+            GenreDto genre = new GenreDto();
+            genre.setId(1L + random.nextInt(GENRES.length));
+            genre.setName(GENRES[genre.getId().intValue() - 1]);
+            genres.add(genre);
+        }
+        film.setGenres(genres);
+        film.setRate(random.nextInt(100) / 10.0);
+        DirectorDto director = new DirectorDto();
+        director.setId(1L + random.nextInt(500));
+        director.setName("Режиссер " + director.getId());
+        film.setDirectors(Set.of(director));
+        return film;
+    }
+
+    private String description() {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (int i = 10 + random.nextInt(15); i > 0; i--) {
+            joiner.add(GENRES[random.nextInt(GENRES.length)].toLowerCase());
+        }
+        return joiner.toString();
+    }
+}
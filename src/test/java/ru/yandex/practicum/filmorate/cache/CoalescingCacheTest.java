@@ -0,0 +1,272 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.filmorate.config.CacheRefreshProperties;
+import ru.yandex.practicum.filmorate.config.CacheSpecProperties;
+import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserSavedEvent;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingCacheTest {
+    @Test
+    void get_RunsOneLoadForConcurrentMissesOnTheSameKey() throws Exception {
+        Cache cache = new CoalescingCache(new ConcurrentMapCacheManager().getCache("popularFilms"),
+                Duration.ofSeconds(10), null, Runnable::run, Clock.systemUTC());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("10_null_null", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "top";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("top");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get("10_null_null", () -> "other")).isEqualTo("top");
+    }
+
+    @Test
+    void get_CachesNotFoundUntilItsTtlOrTheEntityIsSaved() {
+        MutableClock clock = new MutableClock();
+        CacheTagRegistry registry = new InMemoryCacheTagRegistry();
+        CacheManager manager = new CoalescingCacheManager(new TaggingCacheManager(new ConcurrentMapCacheManager(),
+                registry, new CacheTagPolicy()), Duration.ofSeconds(10), new CacheRefreshProperties(),
+                Executors.newSingleThreadExecutor(), clock);
+        Cache cache = manager.getCache("filmById");
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> missing = () -> {
+            loads.incrementAndGet();
+            throw new NotFoundException("Фильм с id=5 не найден");
+        };
+
+        assertThatThrownBy(() -> cache.get(5L, missing)).hasRootCauseInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> cache.get(5L, missing)).isInstanceOf(NotFoundException.class)
+                .hasMessage("Фильм с id=5 не найден");
+        assertThat(cache.get(5L)).isNull();
+        assertThat(loads).hasValue(1);
+
+        clock.advance(Duration.ofSeconds(10));
+        assertThatThrownBy(() -> cache.get(5L, missing)).hasRootCauseInstanceOf(NotFoundException.class);
+        assertThat(loads).hasValue(2);
+
+        Film film = new Film();
+        film.setId(5L);
+        new CacheInvalidator(manager, registry).onFilmSaved(new FilmSavedEvent(film));
+        assertThat(cache.get(5L, () -> "Матрица")).isEqualTo("Матрица");
+    }
+
+    @Test
+    void get_ForgetsNotFoundOfDirectorOrUserOnceTheyAreCreated() {
+        CacheTagRegistry registry = new InMemoryCacheTagRegistry();
+        CacheManager manager = new CoalescingCacheManager(new TaggingCacheManager(new ConcurrentMapCacheManager(),
+                registry, new CacheTagPolicy()), Duration.ofSeconds(10), new CacheRefreshProperties(),
+                Executors.newSingleThreadExecutor(), Clock.systemUTC());
+        CacheInvalidator invalidator = new CacheInvalidator(manager, registry);
+        Cache byDirector = manager.getCache("filmsByDirector");
+        Cache common = manager.getCache("commonFilms");
+        List<Object> directorKey = List.of(7L, "year");
+        List<Object> commonKey = List.of(3L, 4L);
+
+        assertThatThrownBy(() -> byDirector.get(directorKey, () -> {
+            throw new NotFoundException("Режиссер с id=7 не найден");
+        })).hasRootCauseInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> common.get(commonKey, () -> {
+            throw new NotFoundException("Пользователь с id=4 не найден");
+        })).hasRootCauseInstanceOf(NotFoundException.class);
+
+        invalidator.onDirectorSaved(new DirectorSavedEvent(new Director(7L, "Лана Вачовски")));
+        assertThat(byDirector.get(directorKey, () -> "Матрица")).isEqualTo("Матрица");
+        invalidator.onUserSaved(new UserSavedEvent(4L));
+        assertThat(common.get(commonKey, () -> "Матрица")).isEqualTo("Матрица");
+    }
+
+    @Test
+    void get_ReloadsRecommendationsOnceTheUserLikesChange() {
+        CacheTagRegistry registry = new InMemoryCacheTagRegistry();
+        CacheManager manager = new CoalescingCacheManager(new TaggingCacheManager(new ConcurrentMapCacheManager(),
+                registry, new CacheTagPolicy()), Duration.ofSeconds(10), new CacheRefreshProperties(),
+                Executors.newSingleThreadExecutor(), Clock.systemUTC());
+        CacheInvalidator invalidator = new CacheInvalidator(manager, registry);
+        Cache recommendations = manager.getCache("recommendations");
+        List<Object> key = Arrays.asList(5L, null, 10);
+
+        assertThat(recommendations.get(key, () -> "Матрица")).isEqualTo("Матрица");
+        invalidator.onLikeChanged(new LikeChangedEvent(6L, 4L, 7.0, null));
+        assertThat(recommendations.get(key, () -> "Сталкер")).isEqualTo("Матрица");
+        invalidator.onLikeChanged(new LikeChangedEvent(6L, 5L, 7.0, null));
+        assertThat(recommendations.get(key, () -> "Сталкер")).isEqualTo("Сталкер");
+    }
+
+    @Test
+    void get_ServesStaleValueWhileRefreshingAheadUntilMaxStaleness() {
+        MutableClock clock = new MutableClock();
+        CacheRefreshProperties.Policy policy = new CacheRefreshProperties.Policy();
+        policy.setTtl(Duration.ofMinutes(5));
+        policy.setRefreshFraction(0.8);
+        policy.setMaxStaleness(Duration.ofMinutes(5));
+        List<Runnable> refreshes = new ArrayList<>();
+        Cache cache = new CoalescingCache(new ConcurrentMapCacheManager().getCache("popularFilms"),
+                Duration.ofSeconds(10), policy, refreshes::add, clock);
+        AtomicInteger version = new AtomicInteger();
+        Callable<Integer> loader = version::incrementAndGet;
+
+        assertThat(cache.get("top", loader)).isEqualTo(1);
+        clock.advance(Duration.ofMinutes(3));
+        assertThat(cache.get("top", loader)).isEqualTo(1);
+        assertThat(refreshes).isEmpty();
+
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(cache.get("top", loader)).isEqualTo(1);
+        assertThat(cache.get("top", loader)).isEqualTo(1);
+        assertThat(refreshes).hasSize(1);
+        refreshes.remove(0).run();
+        assertThat(cache.get("top", loader)).isEqualTo(2);
+        assertThat(cache.get("top")).extracting(Cache.ValueWrapper::get).isEqualTo(2);
+
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(cache.get("top")).isNull();
+        assertThat(cache.get("top", loader)).isEqualTo(3);
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void get_DoesNotWriteBackRefreshThatRacedAnInvalidation() {
+        MutableClock clock = new MutableClock();
+        CacheRefreshProperties refreshProperties = new CacheRefreshProperties();
+        CacheRefreshProperties.Policy policy = new CacheRefreshProperties.Policy();
+        policy.setTtl(Duration.ofMinutes(5));
+        policy.setRefreshFraction(0.8);
+        policy.setMaxStaleness(Duration.ofMinutes(5));
+        refreshProperties.getCaches().put("popularFilms", policy);
+        CacheTagRegistry registry = new InMemoryCacheTagRegistry();
+        List<Runnable> refreshes = new ArrayList<>();
+        ExecutorService refreshExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(Runnable command) {
+                refreshes.add(command);
+            }
+        };
+        CacheManager manager = new CoalescingCacheManager(new TaggingCacheManager(new ConcurrentMapCacheManager(),
+                registry, new CacheTagPolicy()), Duration.ofSeconds(10), refreshProperties, refreshExecutor, clock);
+        CacheInvalidator invalidator = new CacheInvalidator(manager, registry);
+        Cache cache = manager.getCache("popularFilms");
+        AtomicInteger version = new AtomicInteger();
+        Callable<List<FilmDto>> loader = () -> {
+            List<FilmDto> ranking = List.of(film((long) version.incrementAndGet()));
+            if (version.get() == 2) {
+                invalidator.onLikeChanged(new LikeChangedEvent(1L, 4L, 8.0, null));
+            }
+            return ranking;
+        };
+
+        assertThat(cache.get("top", loader)).extracting(FilmDto::getId).containsExactly(1L);
+        clock.advance(Duration.ofMinutes(4));
+        assertThat(cache.get("top", loader)).extracting(FilmDto::getId).containsExactly(1L);
+        assertThat(refreshes).hasSize(1);
+        refreshes.remove(0).run();
+
+        assertThat(cache.get("top")).isNull();
+        assertThat(cache.get("top", loader)).extracting(FilmDto::getId).containsExactly(3L);
+        refreshExecutor.shutdownNow();
+    }
+
+    @Test
+    void getCache_AppliesPerCacheSpecAndRecordsMetrics() {
+        CacheSpecProperties.Spec disabled = new CacheSpecProperties.Spec();
+        disabled.setEnabled(false);
+        CacheSpecProperties.Spec capped = new CacheSpecProperties.Spec();
+        capped.setMaxEntrySize(DataSize.ofBytes(8));
+        CacheSpecProperties specProperties = new CacheSpecProperties();
+        specProperties.getCaches().put("films", disabled);
+        specProperties.getCaches().put("commonFilms", capped);
+        CoalescingCacheManager manager = new CoalescingCacheManager(new ConcurrentMapCacheManager(),
+                Duration.ofSeconds(10), new CacheRefreshProperties(), specProperties,
+                value -> String.valueOf(value).length(), Executors.newSingleThreadExecutor(), Clock.systemUTC());
+
+        assertThat(manager.getCache("films")).isInstanceOf(NoOpCache.class);
+
+        CoalescingCache cache = (CoalescingCache) manager.getCache("commonFilms");
+        assertThat(cache.get("1_2", () -> "Матрица")).isEqualTo("Матрица");
+        assertThat(cache.get("1_2", () -> "Матрица")).isEqualTo("Матрица");
+        assertThat(cache.get("1_3", () -> "Властелин колец")).isEqualTo("Властелин колец");
+        assertThat(cache.get("1_3", () -> "Властелин колец")).isEqualTo("Властелин колец");
+        assertThatThrownBy(() -> cache.get("1_4", () -> {
+            throw new IllegalStateException("База недоступна");
+        })).hasRootCauseInstanceOf(IllegalStateException.class);
+
+        CacheMetrics metrics = cache.getMetrics();
+        assertThat(metrics.getHits()).isEqualTo(1);
+        assertThat(metrics.getMisses()).isEqualTo(4);
+        assertThat(metrics.getLoads()).isEqualTo(4);
+        assertThat(metrics.getLoadFailures()).isEqualTo(1);
+        assertThat(metrics.getAverageSize()).isEqualTo(12);
+        assertThat(metrics.latencyPercentilesMillis(0.5, 0.99)).hasSize(2).isSorted();
+        assertThat(cache.get("1_3")).isNull();
+    }
+
+    private static FilmDto film(Long id) {
+        FilmDto film = new FilmDto();
+        film.setId(id);
+        return film;
+    }
+
+    private static class MutableClock extends Clock {
+        private final AtomicLong millis = new AtomicLong();
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+}
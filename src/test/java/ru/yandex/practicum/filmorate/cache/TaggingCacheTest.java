@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import ru.yandex.practicum.filmorate.dto.DirectorDto;
+import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.UserDto;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserSavedEvent;
+import ru.yandex.practicum.filmorate.model.Director;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaggingCacheTest {
+    @Test
+    void invalidator_EvictsOnlyEntriesDerivedFromChangedEntities() {
+        CacheTagRegistry registry = new InMemoryCacheTagRegistry();
+        CacheManager manager = new TaggingCacheManager(new ConcurrentMapCacheManager(), registry,
+                new CacheTagPolicy());
+        CacheInvalidator invalidator = new CacheInvalidator(manager, registry);
+        FilmDto directed = film(1L, 7L);
+        FilmDto other = film(2L, null);
+
+        manager.getCache("films").put(SimpleKey.EMPTY, List.of(directed, other));
+        manager.getCache("filmById").put(1L, Optional.of(directed));
+        manager.getCache("popularFilms").put("10_null_null", List.of(directed));
+        manager.getCache("commonFilms").put(List.of(3L, 4L), List.of(directed));
+        manager.getCache("filmsByDirector").put(List.of(7L, "year"), List.of(directed));
+        manager.getCache("users").get(5L, () -> user(5L));
+        manager.getCache("users").put(SimpleKey.EMPTY, List.of(user(5L), user(6L)));
+
+        invalidator.onLikeChanged(new LikeChangedEvent(2L, 4L, 8.0, null));
+        assertThat(cached(manager, "films", SimpleKey.EMPTY)).isFalse();
+        assertThat(cached(manager, "popularFilms", "10_null_null")).isFalse();
+        assertThat(cached(manager, "commonFilms", List.of(3L, 4L))).isFalse();
+        assertThat(cached(manager, "filmById", 1L)).isTrue();
+        assertThat(cached(manager, "filmsByDirector", List.of(7L, "year"))).isTrue();
+
+        invalidator.onDirectorSaved(new DirectorSavedEvent(new Director(7L, "Renamed")));
+        assertThat(cached(manager, "filmById", 1L)).isFalse();
+        assertThat(cached(manager, "filmsByDirector", List.of(7L, "year"))).isFalse();
+        assertThat(cached(manager, "users", 5L)).isTrue();
+
+        invalidator.onUserSaved(new UserSavedEvent(6L));
+        assertThat(cached(manager, "users", SimpleKey.EMPTY)).isFalse();
+        assertThat(cached(manager, "users", 5L)).isTrue();
+        invalidator.onUserSaved(new UserSavedEvent(5L));
+        assertThat(cached(manager, "users", 5L)).isFalse();
+    }
+
+    @Test
+    void get_DropsValueLoadedWhileItsTagsWereInvalidated() {
+        CacheTagRegistry registry = new InMemoryCacheTagRegistry();
+        TaggingCacheManager manager = new TaggingCacheManager(new ConcurrentMapCacheManager(), registry,
+                new CacheTagPolicy());
+        CacheInvalidator invalidator = new CacheInvalidator(manager, registry);
+        TaggingCache cache = (TaggingCache) manager.getCache("popularFilms");
+
+        List<FilmDto> stale = cache.get("10_null_null", () -> {
+            invalidator.onLikeChanged(new LikeChangedEvent(1L, 4L, 8.0, null));
+            return List.of(film(1L, null));
+        });
+        assertThat(stale).hasSize(1);
+        assertThat(cached(manager, "popularFilms", "10_null_null")).isFalse();
+
+        long generation = cache.generation();
+        invalidator.onLikeChanged(new LikeChangedEvent(1L, 4L, 9.0, 8.0));
+        assertThat(cache.put("10_null_null", List.of(film(1L, null)), generation)).isFalse();
+        assertThat(cached(manager, "popularFilms", "10_null_null")).isFalse();
+        assertThat(cache.put("10_null_null", List.of(film(1L, null)), cache.generation())).isTrue();
+        assertThat(cached(manager, "popularFilms", "10_null_null")).isTrue();
+    }
+
+    @Test
+    void policy_TagsEntriesByValueAndKey() {
+        CacheTagPolicy policy = new CacheTagPolicy();
+
+        assertThat(policy.tagsOf("filmById", 1L, Optional.of(film(1L, 7L))))
+                .containsExactlyInAnyOrder("film:1", "director:7");
+        assertThat(policy.tagsOf("commonFilms", List.of(3L, 4L), List.of()))
+                .containsExactlyInAnyOrder("user-likes:3", "user-likes:4");
+        assertThat(policy.tagsOf("filmsByDirector", List.of(7L, "likes"), List.of(film(2L, null))))
+                .containsExactlyInAnyOrder("director-films:7", "film:2");
+        assertThat(policy.tagsOf("users", 5L, user(5L))).isEqualTo(Set.of("user:5"));
+        assertThat(policy.tagsOf("genres", SimpleKey.EMPTY, List.of())).isEmpty();
+    }
+
+    private static boolean cached(CacheManager manager, String cacheName, Object key) {
+        Cache cache = manager.getCache(cacheName);
+        return cache != null && cache.get(key) != null;
+    }
+
+    private static FilmDto film(Long id, Long directorId) {
+        FilmDto film = new FilmDto();
+        film.setId(id);
+        if (directorId != null) {
+            DirectorDto director = new DirectorDto();
+            director.setId(directorId);
+            film.setDirectors(Set.of(director));
+        }
+        return film;
+    }
+
+    private static UserDto user(Long id) {
+        UserDto user = new UserDto();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import ru.yandex.practicum.filmorate.config.LocalCacheProperties;
+import ru.yandex.practicum.filmorate.dto.CacheStatsDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoLevelCacheTest {
+    @Test
+    void cache_ServesFromLocalLevelAndDropsEntriesInvalidatedOnOtherNodes() {
+        CacheManager remote = new ConcurrentMapCacheManager();
+        InMemoryBus bus = new InMemoryBus();
+        TwoLevelCacheManager first = new TwoLevelCacheManager(remote, bus.node(), new LocalCacheProperties());
+        TwoLevelCacheManager second = new TwoLevelCacheManager(remote, bus.node(), new LocalCacheProperties());
+
+        first.getCache("genres").put(1L, "Комедия");
+        assertThat(second.getCache("genres").get(1L, String.class)).isEqualTo("Комедия");
+        assertThat(second.getCache("genres").get(1L, String.class)).isEqualTo("Комедия");
+        remote.getCache("genres").put(1L, "Драма");
+        assertThat(second.getCache("genres").get(1L, String.class)).isEqualTo("Комедия");
+
+        first.getCache("genres").evict(1L);
+        assertThat(second.getCache("genres").get(1L)).isNull();
+        assertThat(second.getCache("genres").get(2L, () -> "Мультфильм")).isEqualTo("Мультфильм");
+        first.getCache("genres").clear();
+        assertThat(second.getCache("genres").get(2L)).isNull();
+
+        CacheStatsDto stats = second.getStats().get(0);
+        assertThat(stats.getLocalHits()).isEqualTo(2);
+        assertThat(stats.getRemoteHits()).isEqualTo(1);
+        assertThat(stats.getRemoteMisses()).isEqualTo(3);
+        assertThat(stats.getLocalHitRatio()).isEqualTo(2.0 / 6);
+    }
+
+    @Test
+    void localStore_ExpiresEntriesEvictsEldestAndSkipsFillsRacingAnEviction() {
+        AtomicLong clock = new AtomicLong();
+        LocalCacheStore store = new LocalCacheStore(2, Duration.ofNanos(10), clock::get);
+
+        store.put("a", new SimpleValueWrapper(1));
+        store.put("b", new SimpleValueWrapper(2));
+        store.get("a");
+        store.put("c", new SimpleValueWrapper(3));
+        assertThat(store.get("b")).isNull();
+        assertThat(store.get("a")).isNotNull();
+        clock.set(10);
+        assertThat(store.get("a")).isNull();
+
+        long generation = store.generation();
+        store.evict("d");
+        store.put("d", new SimpleValueWrapper(4), generation);
+        assertThat(store.get("d")).isNull();
+    }
+
+    @Test
+    void properties_ResolvePerCacheOverrides() {
+        LocalCacheProperties properties = new LocalCacheProperties();
+        LocalCacheProperties.Spec spec = new LocalCacheProperties.Spec();
+        spec.setTtl(Duration.ofMinutes(10));
+        properties.setCaches(Map.of("genres", spec));
+
+        assertThat(properties.resolveTtl("genres")).isEqualTo(Duration.ofMinutes(10));
+        assertThat(properties.resolveMaxSize("genres")).isEqualTo(1000);
+        assertThat(properties.resolveTtl("films")).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    private static class InMemoryBus {
+        private final List<BiConsumer<String, String>> listeners = new ArrayList<>();
+
+        CacheInvalidationBus node() {
+            return new CacheInvalidationBus() {
+                private BiConsumer<String, String> own;
+
+                @Override
+                public void publish(String cacheName, String key) {
+                    listeners.stream()
+                            .filter(listener -> listener != own)
+                            .forEach(listener -> listener.accept(cacheName, key));
+                }
+
+                @Override
+                public void subscribe(BiConsumer<String, String> listener) {
+                    own = listener;
+                    listeners.add(listener);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+import ru.yandex.practicum.filmorate.model.UserRecommendation;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+record AlsEvaluation(double precisionAtK, long trainingMillis, long modelBytes, long heapDeltaBytes) {
+
+    static AlsEvaluation evaluate(int clusters, int usersPerCluster, int filmsPerCluster, int k,
+                                  RecommendationProperties.Als parameters, ForkJoinPool pool) {
+        Random random = new Random(parameters.getSeed());
+        RatingMatrix.Builder builder = RatingMatrix.builder();
+        Map<Long, Set<Long>> heldOut = new HashMap<>();
+        long userId = 1;
+        for (int cluster = 0; cluster < clusters; cluster++) {
+            for (int user = 0; user < usersPerCluster; user++, userId++) {
+                List<Long> films = new ArrayList<>();
+                for (int film = 0; film < filmsPerCluster; film++) {
+                    if (random.nextDouble() < 0.5) {
+                        films.add((long) cluster * filmsPerCluster + film + 1);
+                    }
+                }
+                films.add(1L + random.nextInt(clusters * filmsPerCluster));
+                Collections.shuffle(films, random);
+                int testSize = Math.max(1, films.size() / 5);
+                heldOut.put(userId, new HashSet<>(films.subList(0, testSize)));
+                for (Long filmId : films.subList(testSize, films.size())) {
+                    builder.add(userId, filmId, 1.0 + random.nextInt(10));
+                }
+            }
+        }
+        RatingMatrix matrix = builder.build();
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        AlsModel model = AlsModel.train(matrix, parameters, pool);
+        long trainingMillis = (System.nanoTime() - start) / 1_000_000;
+        long heapDelta = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+
+        Map<Long, List<Long>> recommended = new HashMap<>();
+        for (UserRecommendation recommendation : model.recommendAll(k, pool)) {
+            recommended.computeIfAbsent(recommendation.getUserId(), id -> new ArrayList<>())
+                    .add(recommendation.getFilmId());
+        }
+        double precision = 0;
+        for (Map.Entry<Long, Set<Long>> entry : heldOut.entrySet()) {
+            long hits = recommended.getOrDefault(entry.getKey(), List.of()).stream()
+                    .filter(entry.getValue()::contains)
+                    .count();
+            precision += (double) hits / Math.min(k, entry.getValue().size());
+        }
+        return new AlsEvaluation(precision / heldOut.size(), trainingMillis, model.sizeInBytes(), heapDelta);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Офлайн-оценка модели ALS: precision@k на отложенных оценках, время обучения и память.
+ * Запуск: mvn test -Dtest=AlsEvaluationBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AlsEvaluationBenchmarkTest {
+    private static final int K = 10;
+
+    @Test
+    void evaluateFactorsAndParallelism() {
+        for (int parallelism : IntStream.of(1, Runtime.getRuntime().availableProcessors()).distinct().toArray()) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                for (int factors : new int[]{16, 32, 64}) {
+                    RecommendationProperties.Als parameters = new RecommendationProperties.Als();
+                    parameters.setFactors(factors);
+                    AlsEvaluation evaluation = AlsEvaluation.evaluate(100, 100, 50, K, parameters, pool);
+                    System.out.printf("threads=%d factors=%d precision@%d=%.3f training=%d ms model=%d KB heap=%d KB%n",
+                            parallelism, factors, K, evaluation.precisionAtK(), evaluation.trainingMillis(),
+                            evaluation.modelBytes() / 1024, evaluation.heapDeltaBytes() / 1024);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
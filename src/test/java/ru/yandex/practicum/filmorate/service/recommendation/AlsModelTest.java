@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+import ru.yandex.practicum.filmorate.model.UserRecommendation;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlsModelTest {
+
+    @Test
+    void train_RecoversHeldOutFilmsOfUserCluster() {
+        RecommendationProperties.Als parameters = new RecommendationProperties.Als();
+        parameters.setFactors(16);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            AlsEvaluation evaluation = AlsEvaluation.evaluate(20, 20, 20, 5, parameters, pool);
+
+            assertThat(evaluation.precisionAtK()).isGreaterThan(0.3);
+            assertThat(evaluation.modelBytes()).isEqualTo((400L + 400L) * 16 * Double.BYTES);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void recommendAll_SkipsLikedFilmsAndOrdersByScore() {
+        RatingMatrix matrix = RatingMatrix.builder()
+                .add(1, 10, 9)
+                .add(1, 20, 8)
+                .add(2, 10, 9)
+                .add(2, 20, 7)
+                .add(2, 30, 10)
+                .add(3, 40, 5)
+                .build();
+        RecommendationProperties.Als parameters = new RecommendationProperties.Als();
+        parameters.setFactors(4);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            AlsModel model = AlsModel.train(matrix, parameters, pool);
+            List<UserRecommendation> recommendations = model.recommendAll(2, pool);
+
+            assertThat(recommendations).filteredOn(recommendation -> recommendation.getUserId() == 1)
+                    .extracting(UserRecommendation::getFilmId)
+                    .containsExactly(30L, 40L);
+            assertThat(recommendations).filteredOn(recommendation -> recommendation.getUserId() == 1)
+                    .isSortedAccordingTo((left, right) -> Double.compare(right.getScore(), left.getScore()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.service.recommendation;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.DirectorRepository;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.UserRepository;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.storage.mappers.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({
+        LikeRepository.class,
+        LikeRowMapper.class,
+        FilmRepository.class,
+        FilmRowMapper.class,
+        UserRepository.class,
+        UserRowMapper.class,
+        GenreRepository.class,
+        GenreRowMapper.class,
+        DirectorRepository.class,
+        DirectorRowMapper.class
+})
+class ItemItemEngineTest {
+    private final LikeRepository likeRepository;
+    private final FilmRepository filmRepository;
+    private final UserRepository userRepository;
+
+    private final List<Long> filmIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000 + i, 1, 1));
+            film.setDuration(100);
+            film.setMpaRating(new MpaRating(1L, "G"));
+            film.setGenres(new HashSet<>());
+            film.setDirectors(new HashSet<>());
+            film.setLikes(new HashSet<>());
+            filmIds.add(filmRepository.create(film).getId());
+            userIds.add(userRepository.create(new User(null, "item" + i + "@example.com", "Item " + i,
+                    "item" + i, LocalDate.of(1990, 1, 1))).getId());
+        }
+    }
+
+    @Test
+    void recommend_RanksNeighboursOfLikedFilmsAndFollowsMarkChanges() {
+        like(0, 0, 9.0);
+        like(0, 1, 8.0);
+        like(1, 0, 9.0);
+        like(1, 2, 3.0);
+        like(2, 3, 7.0);
+        like(2, 1, 5.0);
+        like(3, 0, 10.0);
+
+        LikeMatrix likeMatrix = new LikeMatrix(likeRepository);
+        likeMatrix.load();
+        ItemItemEngine engine = new ItemItemEngine(likeMatrix, new RecommendationProperties());
+        engine.subscribe();
+
+        assertThat(engine.recommend(userIds.get(3), 10)).containsExactly(filmIds.get(2), filmIds.get(1));
+        assertThat(engine.recommend(userIds.get(3), 1)).containsExactly(filmIds.get(2));
+
+        likeMatrix.onLikeChanged(new LikeChangedEvent(filmIds.get(2), userIds.get(1), 10.0, 3.0));
+        likeMatrix.onLikeChanged(new LikeChangedEvent(filmIds.get(1), userIds.get(0), null, 8.0));
+        assertThat(engine.recommend(userIds.get(3), 10)).containsExactly(filmIds.get(2));
+
+        like(1, 2, 10.0);
+        likeRepository.deleteLike(filmIds.get(1), userIds.get(0));
+        LikeMatrix rebuilt = new LikeMatrix(likeRepository);
+        rebuilt.load();
+        ItemItemEngine rebuiltEngine = new ItemItemEngine(rebuilt, new RecommendationProperties());
+        rebuiltEngine.subscribe();
+        for (Long userId : userIds) {
+            assertThat(engine.recommend(userId, 10)).isEqualTo(rebuiltEngine.recommend(userId, 10));
+        }
+    }
+
+    private void like(int user, int film, double mark) {
+        likeRepository.addLike(filmIds.get(film), userIds.get(user), mark);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.dto.FeedCursor;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventType;
+import ru.yandex.practicum.filmorate.model.Operation;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.mappers.EventRowMapper;
+import ru.yandex.practicum.filmorate.storage.mappers.UserRowMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({EventRepository.class, EventRowMapper.class, UserRepository.class, UserRowMapper.class})
+class EventRepositoryTest {
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.create(new User(null, "events@example.com", "Events", "events",
+                LocalDate.of(2000, 1, 1))).getId();
+        List<Event> events = new ArrayList<>();
+        for (long timestamp = 1; timestamp <= 5; timestamp++) {
+            events.add(event(timestamp, timestamp * 1000));
+        }
+        eventRepository.addEvents(events);
+    }
+
+    @Test
+    void findFeed_PagesForwardAndBackwardInTimeOrder() {
+        List<Event> latest = eventRepository.findFeedBefore(userId, FeedCursor.FIRST, FeedCursor.LAST, 2);
+        assertThat(latest).extracting(Event::getEntityId).containsExactly(4L, 5L);
+        assertThat(latest.get(0).getEventType()).isEqualTo(EventType.REVIEW);
+        assertThat(latest.get(0).getOperation()).isEqualTo(Operation.UPDATE);
+
+        List<Event> older = eventRepository.findFeedBefore(userId, FeedCursor.FIRST, FeedCursor.before("4000"), 2);
+        assertThat(older).extracting(Event::getEntityId).containsExactly(2L, 3L);
+
+        List<Event> newer = eventRepository.findFeedSince(userId, FeedCursor.after("3000"), 10);
+        assertThat(newer).extracting(Event::getEntityId).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void findFeed_KeepsEventsWithTheSameTimestampAcrossPageBoundaries() {
+        List<Event> batch = new ArrayList<>();
+        for (long entityId = 10; entityId < 14; entityId++) {
+            batch.add(event(entityId, 6000));
+        }
+        eventRepository.addEvents(batch);
+
+        List<Event> first = eventRepository.findFeedSince(userId, FeedCursor.after("5000"), 2);
+        assertThat(first).extracting(Event::getEntityId).containsExactly(10L, 11L);
+        List<Event> second = eventRepository.findFeedSince(userId, FeedCursor.of(first.get(1)), 2);
+        assertThat(second).extracting(Event::getEntityId).containsExactly(12L, 13L);
+
+        List<Event> latest = eventRepository.findFeedBefore(userId, FeedCursor.FIRST, FeedCursor.LAST, 3);
+        assertThat(latest).extracting(Event::getEntityId).containsExactly(11L, 12L, 13L);
+        List<Event> older = eventRepository.findFeedBefore(userId, FeedCursor.FIRST,
+                FeedCursor.before(FeedCursor.of(latest.get(0)).toString()), 2);
+        assertThat(older).extracting(Event::getEntityId).containsExactly(5L, 10L);
+    }
+
+    @Test
+    void findFeed_ReturnsTheWholeFeedInTimeOrderWithoutCursors() {
+        List<Event> batch = new ArrayList<>();
+        for (long entityId = 150; entityId > 5; entityId--) {
+            batch.add(event(entityId, 6000 + entityId / 2));
+        }
+        eventRepository.addEvents(batch);
+
+        List<Event> feed = eventRepository.findFeed(userId);
+        assertThat(feed).hasSize(150);
+        assertThat(feed).extracting(Event::getTimestamp).isSorted();
+        assertThat(feed.subList(0, 7)).extracting(Event::getEntityId).containsExactly(1L, 2L, 3L, 4L, 5L, 7L, 6L);
+        assertThat(feed.get(149).getEntityId()).isEqualTo(150L);
+    }
+
+    private Event event(long entityId, long timestamp) {
+        Event event = new Event();
+        event.setUserId(userId);
+        event.setEntityId(entityId);
+        event.setTimestamp(timestamp);
+        event.setEventType(EventType.REVIEW);
+        event.setOperation(Operation.UPDATE);
+        return event;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.mappers.*;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение обогащения фильмов одним запросом с прежней схемой
+ * "базовый запрос + жанры + режиссеры + оценки".
+ * Запуск: mvn test -Dtest=FilmEnrichmentBenchmarkTest -Dbenchmark=true
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Import({FilmRepository.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        DirectorRepository.class, DirectorRowMapper.class, FilmStatsRepository.class, FilmStatsRowMapper.class})
+class FilmEnrichmentBenchmarkTest {
+    private static final int PAGE_SIZE = 1000;
+    private static final String BASE_PAGE_QUERY =
+            "SELECT f.id FROM films f LEFT JOIN ratings r ON f.rating_id = r.id " +
+                    "WHERE f.id > ? ORDER BY f.id LIMIT ?";
+    private static final String DIRECTORS_FOR_PAGE_QUERY =
+            "SELECT fd.film_id, d.* FROM film_directors fd JOIN directors d ON fd.director_id = d.id " +
+                    "WHERE fd.film_id > ? AND fd.film_id <= ? ORDER BY fd.film_id, d.id";
+    private static final String RATES_FOR_PAGE_QUERY =
+            "SELECT film_id, rate FROM film_stats WHERE film_id > ? AND film_id <= ?";
+
+    private final JdbcTemplate jdbc;
+    private final FilmRepository filmRepository;
+    private final GenreRepository genreRepository;
+
+    @Test
+    void compareSingleQueryWithFanOut() {
+        int loaded = 0;
+        for (int size : new int[]{1_000, 10_000, 100_000}) {
+            seed(size - loaded);
+            loaded = size;
+            warmUp();
+            long fanOut = measure(this::fanOutPass);
+            long singleQuery = measure(this::singleQueryPass);
+            System.out.printf("films=%d fan-out=%d ms single-query=%d ms%n", size, fanOut, singleQuery);
+        }
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < 2; i++) {
+            fanOutPass();
+            singleQueryPass();
+        }
+    }
+
+    private long measure(Runnable pass) {
+        long start = System.nanoTime();
+        pass.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private void singleQueryPass() {
+        long after = 0;
+        List<Film> page;
+        do {
+            page = filmRepository.findPage(after, PAGE_SIZE);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    private void fanOutPass() {
+        long after = 0;
+        List<Long> ids;
+        do {
+            ids = jdbc.queryForList(BASE_PAGE_QUERY, Long.class, after, PAGE_SIZE);
+            if (!ids.isEmpty()) {
+                assertThat(genreRepository.findGenresForFilms(ids)).isNotNull();
+                long last = ids.get(ids.size() - 1);
+                assertThat(jdbc.queryForList(DIRECTORS_FOR_PAGE_QUERY, after, last)).isNotNull();
+                assertThat(jdbc.queryForList(RATES_FOR_PAGE_QUERY, after, last)).isNotNull();
+                after = last;
+            }
+        } while (ids.size() == PAGE_SIZE);
+    }
+
+    private void seed(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        jdbc.update("MERGE INTO directors (id, name) KEY(id) VALUES (1, 'Director 1'), (2, 'Director 2')");
+        Long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM films", Long.class);
+        List<Object[]> films = new ArrayList<>();
+        List<Object[]> genres = new ArrayList<>();
+        List<Object[]> directors = new ArrayList<>();
+        List<Object[]> stats = new ArrayList<>();
+        for (long id = maxId + 1; id <= maxId + count; id++) {
+            films.add(new Object[]{id, "Film " + id, "Description " + id,
+                    Date.valueOf(LocalDate.of(1950 + (int) (id % 70), 1, 1)), 90, 1 + id % 5});
+            genres.add(new Object[]{id, 1 + random.nextInt(6)});
+            genres.add(new Object[]{id, 1 + random.nextInt(6)});
+            directors.add(new Object[]{id, 1 + random.nextInt(2)});
+            stats.add(new Object[]{id, 10, 10.0 * (1 + random.nextInt(10))});
+        }
+        jdbc.batchUpdate("INSERT INTO films (id, name, description, release_date, duration, rating_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", films);
+        jdbc.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genres);
+        jdbc.batchUpdate("INSERT INTO film_directors (film_id, director_id) VALUES (?, ?)", directors);
+        jdbc.batchUpdate("INSERT INTO film_stats (film_id, likes_count, mark_sum) VALUES (?, ?, ?)", stats);
+    }
+}
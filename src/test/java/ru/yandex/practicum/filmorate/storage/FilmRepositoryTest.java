@@ -7,17 +7,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.storage.mappers.DirectorRowMapper;
 import ru.yandex.practicum.filmorate.storage.mappers.FilmRowMapper;
 import ru.yandex.practicum.filmorate.storage.mappers.GenreRowMapper;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @JdbcTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
@@ -55,4 +64,93 @@ class FilmRepositoryTest {
         List<Film> films = filmRepository.findAll();
         assertThat(films).hasSize(2);
     }
+
+    @Test
+    void findPage_ReturnsFilmsAfterCursorOrderedById() {
+        for (int i = 1; i <= 3; i++) {
+            filmRepository.create(new Film(null, "Film " + i, "Description " + i,
+                    LocalDate.of(2023, i, 1), 100,
+                    new MpaRating(1L, "G"), Set.of(), Set.of(), Set.of(), 0.0));
+        }
+        List<Film> firstPage = filmRepository.findPage(0, 2);
+        assertThat(firstPage).hasSize(2);
+        List<Film> secondPage = filmRepository.findPage(firstPage.get(1).getId(), 2);
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(1).getId());
+    }
+
+    @Test
+    void findAllWithIds_BindsIdsInPaddedChunks() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 9; i++) {
+            ids.add(filmRepository.create(new Film(null, "Film " + i, "Description " + i,
+                    LocalDate.of(2023, 1, i), 100,
+                    new MpaRating(1L, "G"), Set.of(), Set.of(), Set.of(), 0.0)).getId());
+        }
+        ids.add(ids.get(0));
+        ids.add(-1L);
+        List<Film> films = filmRepository.findAllWithIds(ids);
+        assertThat(films).hasSize(9);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void findAllWithIds_QueriesChunksInParallelOutsideTransaction() throws InterruptedException {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(4);
+        filmRepository.setExecutorService(executor);
+        List<Long> filmIds = new ArrayList<>();
+        try {
+            for (int i = 1; i <= 4; i++) {
+                filmIds.add(filmRepository.create(new Film(null, "Film " + i, "Description " + i,
+                        LocalDate.of(2023, 1, i), 100,
+                        new MpaRating(1L, "G"), Set.of(), Set.of(), Set.of(), 0.0)).getId());
+            }
+            List<Long> ids = new ArrayList<>();
+            for (long id = -1; id >= -2000; id--) {
+                ids.add(id);
+            }
+            for (int i = 0; i < filmIds.size(); i++) {
+                ids.set(i * 600, filmIds.get(i));
+            }
+
+            List<Film> films = filmRepository.findAllWithIds(ids);
+
+            assertThat(films).extracting(Film::getId).containsExactlyInAnyOrderElementsOf(filmIds);
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(executor.getCompletedTaskCount()).isEqualTo(4);
+        } finally {
+            filmRepository.setExecutorService(null);
+            executor.shutdownNow();
+            filmIds.forEach(filmRepository::delete);
+        }
+    }
+
+    @Test
+    void update_AppliesGenreDiffAndRejectsUnknownGenre() {
+        Film film = filmRepository.create(new Film(null, "Film", "Description",
+                LocalDate.of(2023, 1, 1), 100, new MpaRating(1L, "G"),
+                Set.of(new Genre(1L, null), new Genre(2L, null)), Set.of(), Set.of(), 0.0));
+        film.setGenres(Set.of(new Genre(2L, null), new Genre(3L, null)));
+        Film updated = filmRepository.update(film);
+        assertThat(updated.getGenres()).extracting(Genre::getId).containsExactlyInAnyOrder(2L, 3L);
+
+        film.setGenres(Set.of(new Genre(999L, null)));
+        assertThatThrownBy(() -> filmRepository.update(film)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void createAll_InsertsFilmsWithAssociationsInBatch() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            films.add(new Film(null, "Bulk Film " + i, "Description " + i,
+                    LocalDate.of(2023, 1, i), 100, new MpaRating(1L, "G"),
+                    Set.of(new Genre((long) i, null)), Set.of(), Set.of(), 0.0));
+        }
+        List<Long> ids = filmRepository.createAll(films);
+        assertThat(ids).hasSize(3).doesNotHaveDuplicates();
+        Film second = filmRepository.findById(ids.get(1)).orElseThrow();
+        assertThat(second.getName()).isEqualTo("Bulk Film 2");
+        assertThat(second.getGenres()).extracting(Genre::getId).containsExactly(2L);
+    }
 }
@@ -0,0 +1,198 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.mappers.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({
+        FilmStatsRepository.class,
+        FilmStatsRowMapper.class,
+        LikeRepository.class,
+        LikeRowMapper.class,
+        FilmRepository.class,
+        FilmRowMapper.class,
+        UserRepository.class,
+        UserRowMapper.class
+})
+class FilmStatsRepositoryTest {
+    private final FilmStatsRepository filmStatsRepository;
+    private final LikeRepository likeRepository;
+    private final FilmRepository filmRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private Long filmId;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("statsuser@example.com");
+        user.setName("Stats User");
+        user.setLogin("statslogin");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        userId = userRepository.create(user).getId();
+
+        Film film = new Film();
+        film.setName("Stats Film");
+        film.setDescription("Stats Film Description");
+        film.setReleaseDate(LocalDate.of(2023, 1, 1));
+        film.setDuration(120);
+        film.setMpaRating(new MpaRating(1L, "G"));
+        film.setGenres(new HashSet<>());
+        film.setDirectors(new HashSet<>());
+        filmId = filmRepository.create(film).getId();
+        filmStatsRepository.create(filmId);
+    }
+
+    @Test
+    void applyDelta_UpdatesCountSumAndRate() {
+        filmStatsRepository.applyDelta(filmId, 1, 8.0);
+        filmStatsRepository.applyDelta(filmId, 1, 4.0);
+        FilmStats stats = filmStatsRepository.findByFilmId(filmId).orElseThrow();
+        assertThat(stats.getLikesCount()).isEqualTo(2L);
+        assertThat(stats.getMarkSum()).isEqualTo(12.0);
+        assertThat(stats.getRate()).isEqualTo(6.0);
+    }
+
+    @Test
+    void applyDelta_CreatesMissingRowOnFirstLike() {
+        Film film = new Film();
+        film.setName("Unrated Film");
+        film.setDescription("Unrated Film Description");
+        film.setReleaseDate(LocalDate.of(2023, 1, 1));
+        film.setDuration(90);
+        film.setMpaRating(new MpaRating(1L, "G"));
+        film.setGenres(new HashSet<>());
+        film.setDirectors(new HashSet<>());
+        Long unratedId = filmRepository.create(film).getId();
+
+        filmStatsRepository.applyDelta(unratedId, 1, 5.0);
+        filmStatsRepository.applyDelta(unratedId, 1, 7.0);
+        FilmStats stats = filmStatsRepository.findByFilmId(unratedId).orElseThrow();
+        assertThat(stats.getLikesCount()).isEqualTo(2L);
+        assertThat(stats.getRate()).isEqualTo(6.0);
+    }
+
+    @Test
+    void applyDeltas_RemovesLikesOfDeletedUser() {
+        User other = new User();
+        other.setEmail("statsother@example.com");
+        other.setName("Stats Other");
+        other.setLogin("statsother");
+        other.setBirthday(LocalDate.of(2001, 1, 1));
+        Long otherId = userRepository.create(other).getId();
+        likeRepository.addLike(filmId, userId, 9.0);
+        filmStatsRepository.applyDelta(filmId, 1, 9.0);
+        likeRepository.addLike(filmId, otherId, 5.0);
+        filmStatsRepository.applyDelta(filmId, 1, 5.0);
+
+        Map<Long, Double> marks = likeRepository.findMarksByUserId(userId);
+        userRepository.delete(userId);
+        filmStatsRepository.applyDeltas(marks.entrySet().stream()
+                .map(mark -> new FilmStats(mark.getKey(), -1L, -mark.getValue(), null))
+                .toList());
+
+        assertThat(marks).containsExactly(Map.entry(filmId, 9.0));
+        FilmStats stats = filmStatsRepository.findByFilmId(filmId).orElseThrow();
+        assertThat(stats.getLikesCount()).isEqualTo(1L);
+        assertThat(stats.getMarkSum()).isEqualTo(5.0);
+        assertThat(stats.getRate()).isEqualTo(5.0);
+        assertThat(filmStatsRepository.findDrifted()).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void addAndDeleteLike_ApplyEachDeltaOnceWhenRequestsRace() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            runConcurrently(8, () -> transaction.executeWithoutResult(status -> {
+                Optional<Double> previousMark = likeRepository.addLike(filmId, userId, 6.0);
+                filmStatsRepository.applyDelta(filmId, previousMark.isPresent() ? 0 : 1,
+                        6.0 - previousMark.orElse(0.0));
+            }));
+            FilmStats stats = filmStatsRepository.findByFilmId(filmId).orElseThrow();
+            assertThat(stats.getLikesCount()).isEqualTo(1L);
+            assertThat(stats.getMarkSum()).isEqualTo(6.0);
+
+            runConcurrently(8, () -> {
+                try {
+                    transaction.executeWithoutResult(status -> {
+                        Double mark = likeRepository.deleteLike(filmId, userId);
+                        filmStatsRepository.applyDelta(filmId, -1, -mark);
+                    });
+                } catch (NotFoundException ignored) {
+                }
+            });
+            stats = filmStatsRepository.findByFilmId(filmId).orElseThrow();
+            assertThat(stats.getLikesCount()).isZero();
+            assertThat(stats.getMarkSum()).isZero();
+            assertThat(filmStatsRepository.findDrifted()).noneMatch(drifted -> drifted.getFilmId().equals(filmId));
+        } finally {
+            filmRepository.delete(filmId);
+            userRepository.delete(userId);
+        }
+    }
+
+    @Test
+    void rebuild_FixesDriftFromLikes() {
+        likeRepository.addLike(filmId, userId, 9.0);
+        List<FilmStats> drifted = filmStatsRepository.findDrifted();
+        assertThat(drifted).anyMatch(stats -> stats.getFilmId().equals(filmId));
+
+        filmStatsRepository.rebuild();
+        assertThat(filmStatsRepository.findDrifted()).isEmpty();
+        assertThat(filmStatsRepository.findByFilmId(filmId).orElseThrow().getRate()).isEqualTo(9.0);
+    }
+
+    private static void runConcurrently(int threads, Runnable action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    action.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
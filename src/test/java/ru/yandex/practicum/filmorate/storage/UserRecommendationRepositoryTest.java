@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserRecommendation;
+import ru.yandex.practicum.filmorate.storage.mappers.*;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({
+        UserRecommendationRepository.class,
+        UserRecommendationRowMapper.class,
+        FilmRepository.class,
+        FilmRowMapper.class,
+        UserRepository.class,
+        UserRowMapper.class,
+        GenreRepository.class,
+        GenreRowMapper.class,
+        DirectorRepository.class,
+        DirectorRowMapper.class
+})
+class UserRecommendationRepositoryTest {
+    private final UserRecommendationRepository userRecommendationRepository;
+    private final FilmRepository filmRepository;
+    private final UserRepository userRepository;
+
+    @Test
+    void replaceAll_StoresRanksAndSkipsMissingFilms() {
+        Long userId = userRepository.create(new User(null, "als@example.com", "Als", "als",
+                LocalDate.of(2000, 1, 1))).getId();
+        Long firstFilmId = createFilm("First");
+        Long secondFilmId = createFilm("Second");
+        userRecommendationRepository.replaceChanged(List.of(
+                new UserRecommendation(userId, 1, firstFilmId, 0.9)
+        ), 10);
+
+        userRecommendationRepository.replaceChanged(List.of(
+                new UserRecommendation(userId, 2, firstFilmId, 0.4),
+                new UserRecommendation(userId, 1, secondFilmId, 0.8),
+                new UserRecommendation(userId, 3, 999_999L, 0.1)
+        ), 2);
+
+        assertThat(userRecommendationRepository.findByUserId(userId, 10))
+                .extracting(UserRecommendation::getFilmId)
+                .containsExactly(secondFilmId, firstFilmId);
+        assertThat(userRecommendationRepository.findByUserId(userId, 1)).hasSize(1);
+    }
+
+    @Test
+    void replaceChanged_RewritesOnlyUsersWhoseRecommendationsChanged() {
+        Long keptUserId = createUser("kept");
+        Long changedUserId = createUser("changed");
+        Long removedUserId = createUser("removed");
+        Long firstFilmId = createFilm("First");
+        Long secondFilmId = createFilm("Second");
+        userRecommendationRepository.replaceChanged(List.of(
+                new UserRecommendation(keptUserId, 1, firstFilmId, 0.9),
+                new UserRecommendation(changedUserId, 1, firstFilmId, 0.9),
+                new UserRecommendation(removedUserId, 1, secondFilmId, 0.9)
+        ), 10);
+
+        int changed = userRecommendationRepository.replaceChanged(List.of(
+                new UserRecommendation(keptUserId, 1, firstFilmId, 0.5),
+                new UserRecommendation(changedUserId, 1, secondFilmId, 0.7)
+        ), 10);
+
+        assertThat(changed).isEqualTo(2);
+        assertThat(userRecommendationRepository.findByUserId(keptUserId, 10))
+                .extracting(UserRecommendation::getScore)
+                .containsExactly(0.9);
+        assertThat(userRecommendationRepository.findByUserId(changedUserId, 10))
+                .extracting(UserRecommendation::getFilmId)
+                .containsExactly(secondFilmId);
+        assertThat(userRecommendationRepository.findByUserId(removedUserId, 10)).isEmpty();
+    }
+
+    private Long createUser(String login) {
+        return userRepository.create(new User(null, login + "@example.com", login, login,
+                LocalDate.of(2000, 1, 1))).getId();
+    }
+
+    private Long createFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(name + " description");
+        film.setReleaseDate(LocalDate.of(2020, 1, 1));
+        film.setDuration(90);
+        film.setMpaRating(new MpaRating(1L, "G"));
+        film.setGenres(new HashSet<>());
+        film.setDirectors(new HashSet<>());
+        film.setLikes(new HashSet<>());
+        return filmRepository.create(film).getId();
+    }
+}
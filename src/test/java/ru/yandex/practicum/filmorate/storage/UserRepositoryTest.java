@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.mappers.UserRowMapper;
 
@@ -15,6 +16,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @JdbcTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
@@ -64,6 +66,17 @@ class UserRepositoryTest {
         List<User> users = userRepository.findAll();
         assertThat(users).hasSize(2);
     }
-}
-
 
+    @Test
+    void createAll_RejectsBatchWithExistingEmail() {
+        userRepository.create(new User(null, "taken@example.com", "Taken", "taken",
+                LocalDate.of(2000, 1, 1)));
+        List<Long> ids = userRepository.createAll(List.of(
+                new User(null, "bulk1@example.com", "Bulk One", "bulkone", LocalDate.of(2000, 1, 1)),
+                new User(null, "bulk2@example.com", "Bulk Two", "bulktwo", LocalDate.of(2000, 1, 1))));
+        assertThat(ids).hasSize(2);
+        assertThatThrownBy(() -> userRepository.createAll(List.of(
+                new User(null, "taken@example.com", "Again", "again", LocalDate.of(2000, 1, 1)))))
+                .isInstanceOf(DuplicatedDataException.class);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.storage.buffer;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.config.EventAppenderProperties;
+import ru.yandex.practicum.filmorate.dto.FeedCursor;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventType;
+import ru.yandex.practicum.filmorate.model.Operation;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EventRepository;
+import ru.yandex.practicum.filmorate.storage.UserRepository;
+import ru.yandex.practicum.filmorate.storage.mappers.EventRowMapper;
+import ru.yandex.practicum.filmorate.storage.mappers.UserRowMapper;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({EventRepository.class, EventRowMapper.class, UserRepository.class, UserRowMapper.class})
+class EventAppenderTest {
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+
+    private EventAppender appender;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        EventAppenderProperties properties = new EventAppenderProperties();
+        properties.setBatchSize(2);
+        appender = new EventAppender(eventRepository, properties);
+        appender.start();
+        userId = userRepository.create(new User(null, "feed@example.com", "Feed", "feed",
+                LocalDate.of(2000, 1, 1))).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        appender.drain();
+        userRepository.delete(userId);
+    }
+
+    @Test
+    void awaitAppended_MakesFeedSeeEventsInOrder() {
+        appender.append(userId, 1L, EventType.LIKE, Operation.ADD);
+        appender.append(userId, 2L, EventType.FRIEND, Operation.ADD);
+        appender.append(userId, 1L, EventType.LIKE, Operation.REMOVE);
+        appender.awaitAppended();
+
+        List<Event> feed = eventRepository.findFeedBefore(userId, FeedCursor.FIRST, FeedCursor.LAST, 10);
+        assertThat(feed).extracting(Event::getOperation)
+                .containsExactly(Operation.ADD, Operation.ADD, Operation.REMOVE);
+        assertThat(feed).extracting(Event::getEntityId).containsExactly(1L, 2L, 1L);
+    }
+}
@@ -0,0 +1,173 @@
+package ru.yandex.practicum.filmorate.storage.buffer;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.config.LikeWriteBehindProperties;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.FilmStatsRepository;
+import ru.yandex.practicum.filmorate.storage.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.UserRepository;
+import ru.yandex.practicum.filmorate.storage.mappers.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({LikeRepository.class, LikeRowMapper.class, FilmStatsRepository.class, FilmStatsRowMapper.class,
+        FilmRepository.class, FilmRowMapper.class, UserRepository.class, UserRowMapper.class})
+class LikeWriteBehindBufferTest {
+    private final LikeRepository likeRepository;
+    private final FilmStatsRepository filmStatsRepository;
+    private final FilmRepository filmRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+    private LikeWriteBehindBuffer buffer;
+    private Long filmId;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new LikeWriteBehindBuffer(likeRepository, filmStatsRepository, transactionManager,
+                published::add, new LikeWriteBehindProperties());
+        userId = userRepository.create(new User(null, "buffer@example.com", "Buffer", "buffer",
+                LocalDate.of(2000, 1, 1))).getId();
+        filmId = createFilm("Buffered Film");
+    }
+
+    @AfterEach
+    void tearDown() {
+        filmRepository.delete(filmId);
+        userRepository.delete(userId);
+    }
+
+    @Test
+    void put_CollapsesRepeatedMarksUntilFlush() {
+        assertThat(buffer.put(filmId, userId, 4.0)).isEmpty();
+        assertThat(buffer.put(filmId, userId, 8.0)).contains(4.0);
+        assertThat(buffer.findMark(filmId, userId)).contains(8.0);
+        assertThat(likeRepository.findMark(filmId, userId)).isEmpty();
+
+        buffer.flush();
+        assertThat(likeRepository.findMark(filmId, userId)).contains(8.0);
+        FilmStats stats = filmStatsRepository.findByFilmId(filmId).orElseThrow();
+        assertThat(stats.getLikesCount()).isEqualTo(1L);
+        assertThat(stats.getMarkSum()).isEqualTo(8.0);
+
+        assertThat(buffer.put(filmId, userId, null)).contains(8.0);
+        buffer.flush();
+        assertThat(likeRepository.findMark(filmId, userId)).isEmpty();
+        assertThat(filmStatsRepository.findByFilmId(filmId).orElseThrow().getLikesCount()).isZero();
+    }
+
+    @Test
+    void put_IgnoresRemovalOfMissingLike() {
+        assertThat(buffer.put(filmId, userId, null)).isEmpty();
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void put_StagesMarkOnlyAfterCommit() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            buffer.put(filmId, userId, 6.0);
+            status.setRollbackOnly();
+        });
+        assertThat(buffer.findMark(filmId, userId)).isEmpty();
+        assertThat(buffer.pendingCount()).isZero();
+
+        transaction.executeWithoutResult(status -> buffer.put(filmId, userId, 6.0));
+        assertThat(buffer.findMark(filmId, userId)).contains(6.0);
+        buffer.flush();
+        assertThat(likeRepository.findMark(filmId, userId)).contains(6.0);
+    }
+
+    @Test
+    void flush_RequeuesFailedMarksAndRevertsThemWhenAttemptsRunOut() {
+        Long removedId = createFilm("Removed Film");
+        buffer.put(removedId, userId, 7.0);
+        filmRepository.delete(removedId);
+        assertThat(published).containsExactly(new LikeChangedEvent(removedId, userId, 7.0, null));
+        published.clear();
+
+        buffer.flush();
+        buffer.flush();
+        assertThat(buffer.findMark(removedId, userId)).contains(7.0);
+        assertThat(published).isEmpty();
+
+        buffer.flush();
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(published).containsExactly(new LikeChangedEvent(removedId, userId, null, 7.0));
+    }
+
+    @Test
+    void put_PublishesDeltasOfConcurrentMarksAgainstTheMergedEntry() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            assertThat(buffer.put(filmId, userId, 5.0)).isEmpty();
+            CompletableFuture.runAsync(() -> transaction.executeWithoutResult(other ->
+                    assertThat(buffer.put(filmId, userId, 7.0)).isEmpty())).join();
+        });
+
+        buffer.flush();
+        assertThat(likeRepository.findMark(filmId, userId)).contains(5.0);
+        assertPublishedDeltasMatchStats();
+    }
+
+    @Test
+    void put_PublishesDeltasOfMarkChangedWhileItWasBeingRemoved() {
+        buffer.put(filmId, userId, 5.0);
+        buffer.flush();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            assertThat(buffer.put(filmId, userId, null)).contains(5.0);
+            CompletableFuture.runAsync(() -> transaction.executeWithoutResult(other ->
+                    assertThat(buffer.put(filmId, userId, 7.0)).contains(5.0))).join();
+        });
+
+        buffer.flush();
+        assertThat(likeRepository.findMark(filmId, userId)).isEmpty();
+        assertPublishedDeltasMatchStats();
+    }
+
+    private void assertPublishedDeltasMatchStats() {
+        List<LikeChangedEvent> events = published.stream()
+                .map(LikeChangedEvent.class::cast)
+                .toList();
+        FilmStats stats = filmStatsRepository.findByFilmId(filmId).orElseThrow();
+        assertThat(events.stream().mapToLong(LikeChangedEvent::likesDelta).sum()).isEqualTo(stats.getLikesCount());
+        assertThat(events.stream().mapToDouble(LikeChangedEvent::markDelta).sum()).isEqualTo(stats.getMarkSum());
+    }
+
+    private Long createFilm(String name) {
+        Long id = filmRepository.create(new Film(null, name, "Description",
+                LocalDate.of(2023, 1, 1), 100, new MpaRating(1L, "G"),
+                Set.of(), Set.of(), Set.of(), 0.0)).getId();
+        filmStatsRepository.create(id);
+        return id;
+    }
+}
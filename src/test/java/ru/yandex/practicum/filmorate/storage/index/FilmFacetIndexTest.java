@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.dto.FacetCountDto;
+import ru.yandex.practicum.filmorate.dto.FacetFilter;
+import ru.yandex.practicum.filmorate.dto.FacetsDto;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.mappers.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmRepository.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        DirectorRowMapper.class})
+class FilmFacetIndexTest {
+    private final FilmRepository filmRepository;
+
+    @Test
+    void count_IntersectsMatchesWithFacetBitmaps() {
+        Film first = createFilm(1999, 1L, 1L, 2L);
+        Film second = createFilm(1995, 2L, 1L);
+        Film third = createFilm(2003, 1L, 2L);
+        Film other = createFilm(1999, 3L, 3L);
+        FilmFacetIndex index = new FilmFacetIndex(filmRepository);
+        index.load();
+        Set<Long> matched = Set.of(first.getId(), second.getId(), third.getId());
+
+        FacetsDto facets = index.count(matched, new FacetFilter());
+        assertThat(facets.getGenres()).containsExactly(count(1, 2), count(2, 2));
+        assertThat(facets.getYears()).containsExactly(count(1995, 1), count(1999, 1), count(2003, 1));
+        assertThat(facets.getDecades()).containsExactly(count(1990, 2), count(2000, 1));
+        assertThat(facets.getMpa()).containsExactly(count(1, 2), count(2, 1));
+
+        FacetFilter filter = new FacetFilter();
+        filter.setGenres(Set.of(1L));
+        facets = index.count(matched, filter);
+        assertThat(facets.getGenres()).containsExactly(count(1, 2), count(2, 2));
+        assertThat(facets.getYears()).containsExactly(count(1995, 1), count(1999, 1));
+        assertThat(facets.getMpa()).containsExactly(count(1, 1), count(2, 1));
+
+        filter.setDecades(Set.of(1990));
+        filter.setMpa(Set.of(1L, 3L));
+        assertThat(accepted(index.matcher(filter), first, second, third, other)).containsExactly(first.getId());
+
+        index.onFilmDeleted(new FilmDeletedEvent(first.getId()));
+        second.setReleaseDate(LocalDate.of(2001, 5, 1));
+        index.onFilmSaved(new FilmSavedEvent(second));
+        facets = index.count(matched, new FacetFilter());
+        assertThat(facets.getDecades()).containsExactly(count(2000, 2));
+        assertThat(facets.getGenres()).containsExactly(count(1, 1), count(2, 1));
+        assertThat(accepted(index.matcher(filter), first, second, third, other)).isEmpty();
+    }
+
+    @Test
+    void matcher_IgnoresFilmsThatReuseSlotsOfDeletedMatches() {
+        Film matching = createFilm(1999, 1L, 1L);
+        FilmFacetIndex index = new FilmFacetIndex(filmRepository);
+        index.load();
+        FacetFilter filter = new FacetFilter();
+        filter.setGenres(Set.of(1L));
+        LongPredicate matcher = index.matcher(filter);
+
+        index.onFilmDeleted(new FilmDeletedEvent(matching.getId()));
+        Film replacement = createFilm(2005, 2L, 3L);
+        index.onFilmSaved(new FilmSavedEvent(replacement));
+
+        assertThat(matcher.test(matching.getId())).isTrue();
+        assertThat(matcher.test(replacement.getId())).isFalse();
+        assertThat(index.matcher(filter).test(matching.getId())).isFalse();
+    }
+
+    private static Set<Long> accepted(LongPredicate matcher, Film... films) {
+        return Arrays.stream(films).map(Film::getId).filter(matcher::test).collect(Collectors.toSet());
+    }
+
+    private static FacetCountDto count(long value, int count) {
+        return new FacetCountDto(value, count);
+    }
+
+    private Film createFilm(int year, Long mpaId, Long... genreIds) {
+        Film film = new Film();
+        film.setName("Film " + year);
+        film.setDescription("description");
+        film.setReleaseDate(LocalDate.of(year, 1, 1));
+        film.setDuration(120);
+        film.setMpaRating(new MpaRating(mpaId, null));
+        film.setGenres(new HashSet<>(List.of(genreIds).stream().map(id -> new Genre(id, null)).toList()));
+        film.setDirectors(new HashSet<>());
+        film.setLikes(new HashSet<>());
+        return filmRepository.create(film);
+    }
+}
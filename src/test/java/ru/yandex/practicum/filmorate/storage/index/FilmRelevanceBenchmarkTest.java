@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.yandex.practicum.filmorate.config.SearchProperties;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Задержка ранжированного поиска (BM25 + нечеткие триграммы + популярность) на каталоге из 100 000 фильмов
+ * в сравнении с поиском по подстроке и полной сортировкой по рейтингу.
+ * Запуск: mvn test -Dtest=FilmRelevanceBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FilmRelevanceBenchmarkTest {
+    private static final int FILMS = 100_000;
+    private static final int DIRECTORS = 2_000;
+    private static final int WORDS = 5_000;
+    private static final int QUERIES = 2_000;
+    private static final int LIMIT = 20;
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ru", "sa", "to", "vi", "de", "gor",
+            "lan", "mar", "tri", "xo", "zen", "bel", "cor", "dan", "fel", "hun"};
+
+    private final Random random = new Random(42);
+
+    @Test
+    void measureLatency() {
+        String[] words = new String[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = word(i);
+        }
+        PopularityIndex popularityIndex = new PopularityIndex(null, null, null);
+        FilmSearchIndex searchIndex = new FilmSearchIndex(null, null);
+        FilmRelevanceIndex relevanceIndex = new FilmRelevanceIndex(null, null, popularityIndex, new SearchProperties());
+        List<Director> directors = new ArrayList<>();
+        for (long id = 1; id <= DIRECTORS; id++) {
+            Director director = new Director(id, capitalize(pick(words)) + " " + capitalize(pick(words)));
+            directors.add(director);
+            searchIndex.onDirectorSaved(new DirectorSavedEvent(director));
+            relevanceIndex.onDirectorSaved(new DirectorSavedEvent(director));
+        }
+        long start = System.nanoTime();
+        for (long id = 1; id <= FILMS; id++) {
+            Film film = new Film();
+            film.setId(id);
+            film.setName(phrase(words, 1 + random.nextInt(3)));
+            film.setDescription(phrase(words, 10 + random.nextInt(20)));
+            film.setReleaseDate(LocalDate.of(1950 + random.nextInt(75), 1, 1));
+            film.setDirectors(new HashSet<>(Set.of(directors.get(random.nextInt(DIRECTORS)))));
+            FilmSavedEvent event = new FilmSavedEvent(film);
+            popularityIndex.onFilmSaved(event);
+            searchIndex.onFilmSaved(event);
+            relevanceIndex.onFilmSaved(event);
+            for (int like = random.nextInt(20); like > 0; like--) {
+                popularityIndex.onLikeChanged(new LikeChangedEvent(id, like, 1.0 + random.nextInt(10), null));
+            }
+        }
+        System.out.printf("films=%d indexing=%d ms%n", FILMS, (System.nanoTime() - start) / 1_000_000);
+
+        Map<String, List<String>> queries = new LinkedHashMap<>();
+        queries.put("exact", queries(() -> pick(words)));
+        queries.put("typo", queries(() -> typo(pick(words))));
+        queries.put("two words", queries(() -> pick(words) + " " + pick(words)));
+        queries.put("short", queries(() -> pick(words).substring(0, 3)));
+        for (Map.Entry<String, List<String>> entry : queries.entrySet()) {
+            report(entry.getKey(), "substring", entry.getValue(), query -> searchIndex.search(query, true, true)
+                    .stream()
+                    .sorted(Comparator.comparingDouble(popularityIndex::getRate).reversed()
+                            .thenComparing(Comparator.naturalOrder()))
+                    .toList());
+            report(entry.getKey(), "relevance", entry.getValue(),
+                    query -> relevanceIndex.search(query, true, true, LIMIT, filmId -> true));
+        }
+    }
+
+    private void report(String kind, String mode, List<String> queries, Consumer<String> search) {
+        queries.forEach(search);
+        long[] nanos = new long[queries.size()];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            search.accept(queries.get(i));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-9s %-9s p50=%.2f ms p95=%.2f ms p99=%.2f ms%n", kind, mode,
+                nanos[nanos.length / 2] / 1e6, nanos[nanos.length * 95 / 100] / 1e6,
+                nanos[nanos.length * 99 / 100] / 1e6);
+    }
+
+    private List<String> queries(Supplier<String> generator) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            result.add(generator.get());
+        }
+        return result;
+    }
+
+    private String phrase(String[] words, int length) {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (int i = 0; i < length; i++) {
+            joiner.add(pick(words));
+        }
+        return capitalize(joiner.toString());
+    }
+
+    private String pick(String[] words) {
+        double skew = random.nextDouble();
+        return words[(int) (skew * skew * words.length)];
+    }
+
+    private String typo(String word) {
+        int position = random.nextInt(word.length());
+        return word.substring(0, position) + word.substring(position + 1);
+    }
+
+    private static String word(int index) {
+        StringBuilder builder = new StringBuilder();
+        int value = index + SYLLABLES.length;
+        while (value > 0) {
+            builder.append(SYLLABLES[value % SYLLABLES.length]);
+            value /= SYLLABLES.length;
+        }
+        return builder.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.config.SearchProperties;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.DirectorRepository;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.FilmStatsRepository;
+import ru.yandex.practicum.filmorate.storage.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.mappers.*;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmRepository.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        DirectorRepository.class, DirectorRowMapper.class, FilmStatsRepository.class, FilmStatsRowMapper.class})
+class FilmRelevanceIndexTest {
+    private static final LongPredicate ALL = filmId -> true;
+
+    private final FilmRepository filmRepository;
+    private final DirectorRepository directorRepository;
+    private final GenreRepository genreRepository;
+    private final FilmStatsRepository filmStatsRepository;
+
+    @Test
+    void search_RanksByRelevanceBlendedWithPopularityAndToleratesTypos() {
+        Director wachowski = directorRepository.create(new Director(null, "Lana Wachowski"));
+        Director nolan = directorRepository.create(new Director(null, "Christopher Nolan"));
+        Long matrix = createFilm("The Matrix", "A hacker learns the truth about reality", wachowski);
+        Long reloaded = createFilm("Matrix Reloaded", "Neo fights the machines again", wachowski);
+        Long memento = createFilm("Memento", "A man with memory loss hunts a killer", nolan);
+        Long inception = createFilm("Inception",
+                "A thief steals secrets through a shared dream world, a matrix of layered dreams", nolan);
+
+        PopularityIndex popularityIndex = new PopularityIndex(filmRepository, genreRepository, filmStatsRepository);
+        popularityIndex.load();
+        like(popularityIndex, matrix, 9.0);
+        like(popularityIndex, reloaded, 5.0);
+        like(popularityIndex, memento, 8.0);
+        like(popularityIndex, inception, 10.0);
+        FilmRelevanceIndex index = new FilmRelevanceIndex(filmRepository, directorRepository,
+                popularityIndex, new SearchProperties());
+        index.load();
+
+        assertThat(index.search("matrix", true, false, 10, ALL)).containsExactly(matrix, reloaded, inception);
+        assertThat(index.search("matrx", true, false, 10, ALL)).containsExactly(matrix, reloaded, inception);
+        assertThat(index.search("matrix", true, false, 2, ALL)).containsExactly(matrix, reloaded);
+        assertThat(index.search("matrix", true, false, 10, filmId -> filmId != matrix))
+                .containsExactly(reloaded, inception);
+        assertThat(index.match("matrix", true, false)).containsExactlyInAnyOrder(matrix, reloaded, inception);
+        assertThat(index.search("matrix reloaded", true, false, 1, ALL)).containsExactly(reloaded);
+        assertThat(index.search("nolam", false, true, 10, ALL)).containsExactly(inception, memento);
+        assertThat(index.search("nolan", true, false, 10, ALL)).isEmpty();
+        assertThat(index.search("memory", true, true, 10, ALL)).containsExactly(memento);
+        assertThat(index.search("  ", true, true, 10, ALL)).isEmpty();
+
+        index.onDirectorSaved(new DirectorSavedEvent(new Director(nolan.getId(), "Jonathan Nolan")));
+        index.onFilmDeleted(new FilmDeletedEvent(inception));
+        assertThat(index.search("christopher", false, true, 10, ALL)).isEmpty();
+        assertThat(index.search("jonathan", false, true, 10, ALL)).containsExactly(memento);
+        assertThat(index.search("matrix", true, false, 10, ALL)).containsExactly(matrix, reloaded);
+    }
+
+    private static void like(PopularityIndex popularityIndex, Long filmId, double mark) {
+        popularityIndex.onLikeChanged(new LikeChangedEvent(filmId, 1L, mark, null));
+    }
+
+    private Long createFilm(String name, String description, Director... directors) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(description);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setMpaRating(new MpaRating(1L, "G"));
+        film.setGenres(new HashSet<>());
+        film.setDirectors(new HashSet<>(List.of(directors)));
+        film.setLikes(new HashSet<>());
+        return filmRepository.create(film).getId();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.DirectorRepository;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.mappers.*;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmRepository.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        DirectorRepository.class, DirectorRowMapper.class})
+class FilmSearchIndexTest {
+    private final FilmRepository filmRepository;
+    private final DirectorRepository directorRepository;
+
+    @Test
+    void search_MatchesSqlSubstringSearchAndFollowsChanges() {
+        Director wachowski = directorRepository.create(new Director(null, "Lana Wachowski"));
+        Director nolan = directorRepository.create(new Director(null, "Christopher Nolan"));
+        Long matrix = createFilm("The Matrix", wachowski);
+        createFilm("Matrix Reloaded", wachowski);
+        createFilm("Inception", nolan);
+        Long memento = createFilm("Memento", nolan);
+        createFilm("Cloud Atlas", wachowski, nolan);
+
+        FilmSearchIndex index = new FilmSearchIndex(filmRepository, directorRepository);
+        index.load();
+
+        for (String query : List.of("matrix", "MAT", "at", "o", "nolan", "wach", "ent", "xyz", "as")) {
+            for (List<String> by : List.of(List.of("title"), List.of("director"), List.of("title", "director"))) {
+                assertThat(index.search(query, by.contains("title"), by.contains("director")))
+                        .as("%s by %s", query, by)
+                        .isEqualTo(sqlSearch(query, by));
+            }
+        }
+
+        index.onDirectorSaved(new DirectorSavedEvent(new Director(nolan.getId(), "Jonathan Nolan")));
+        index.onFilmDeleted(new FilmDeletedEvent(memento));
+        assertThat(index.search("christopher", false, true)).isEmpty();
+        assertThat(index.search("jonathan", false, true)).hasSize(2).doesNotContain(memento);
+        assertThat(index.search("the mat", true, false)).containsExactly(matrix);
+    }
+
+    private Set<Long> sqlSearch(String query, List<String> by) {
+        return filmRepository.search(query, by).stream().map(Film::getId).collect(Collectors.toSet());
+    }
+
+    private Long createFilm(String name, Director... directors) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(name + " description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setMpaRating(new MpaRating(1L, "G"));
+        film.setGenres(new HashSet<>());
+        film.setDirectors(new HashSet<>(List.of(directors)));
+        film.setLikes(new HashSet<>());
+        return filmRepository.create(film).getId();
+    }
+}
@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.yandex.practicum.filmorate.config.SearchProperties;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Задержка подсказок по префиксу и инкрементального обновления индекса на каталоге из 100 000 фильмов,
+ * а также объем кучи, занимаемый индексом.
+ * Запуск: mvn test -Dtest=FilmSuggestBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FilmSuggestBenchmarkTest {
+    private static final int FILMS = 100_000;
+    private static final int DIRECTORS = 2_000;
+    private static final int WORDS = 5_000;
+    private static final int QUERIES = 2_000;
+    private static final int LIMIT = 10;
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ru", "sa", "to", "vi", "de", "gor",
+            "lan", "mar", "tri", "xo", "zen", "bel", "cor", "dan", "fel", "hun"};
+
+    private final Random random = new Random(42);
+
+    @Test
+    void measureLatency() {
+        String[] words = new String[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = word(i);
+        }
+        PopularityIndex popularityIndex = new PopularityIndex(null, null, null);
+        List<Director> directors = new ArrayList<>();
+        List<Film> films = new ArrayList<>();
+        for (long id = 1; id <= DIRECTORS; id++) {
+            directors.add(new Director(id, capitalize(pick(words)) + " " + capitalize(pick(words))));
+        }
+        for (long id = 1; id <= FILMS; id++) {
+            Film film = new Film();
+            film.setId(id);
+            film.setName(phrase(words, 1 + random.nextInt(3)));
+            film.setReleaseDate(LocalDate.of(1950 + random.nextInt(75), 1, 1));
+            film.setDirectors(new HashSet<>(Set.of(directors.get(random.nextInt(DIRECTORS)))));
+            films.add(film);
+            popularityIndex.onFilmSaved(new FilmSavedEvent(film));
+            for (int like = random.nextInt(20); like > 0; like--) {
+                popularityIndex.onLikeChanged(new LikeChangedEvent(id, like, 1.0 + random.nextInt(10), null));
+            }
+        }
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        FilmSuggestIndex index = new FilmSuggestIndex(null, null, popularityIndex, new SearchProperties());
+        directors.forEach(director -> index.onDirectorSaved(new DirectorSavedEvent(director)));
+        films.forEach(film -> index.onFilmSaved(new FilmSavedEvent(film)));
+        long indexing = System.nanoTime() - start;
+        long heapAfter = usedHeap();
+        System.out.printf("films=%d indexing=%d ms heap=%.1f MB%n", FILMS, indexing / 1_000_000,
+                (heapAfter - heapBefore) / 1024.0 / 1024.0);
+
+        Map<String, List<String>> queries = new LinkedHashMap<>();
+        queries.put("1 char", queries(() -> pick(words).substring(0, 1)));
+        queries.put("2 chars", queries(() -> pick(words).substring(0, 2)));
+        queries.put("4 chars", queries(() -> pick(words).substring(0, 4)));
+        queries.put("word", queries(() -> pick(words)));
+        queries.put("two words", queries(() -> pick(words) + " " + pick(words).substring(0, 2)));
+        for (Map.Entry<String, List<String>> entry : queries.entrySet()) {
+            report(entry.getKey(), entry.getValue(), query -> index.suggest(query, LIMIT));
+        }
+        List<Film> renamed = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            Film film = films.get(random.nextInt(FILMS));
+            film.setName(phrase(words, 1 + random.nextInt(3)));
+            renamed.add(film);
+        }
+        report("update", renamed, film -> index.onFilmSaved(new FilmSavedEvent(film)));
+    }
+
+    private <T> void report(String kind, List<T> inputs, Consumer<T> action) {
+        inputs.forEach(action);
+        long[] nanos = new long[inputs.size()];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            action.accept(inputs.get(i));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-9s p50=%.3f ms p95=%.3f ms p99=%.3f ms%n", kind,
+                nanos[nanos.length / 2] / 1e6, nanos[nanos.length * 95 / 100] / 1e6,
+                nanos[nanos.length * 99 / 100] / 1e6);
+    }
+
+    private List<String> queries(Supplier<String> generator) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            result.add(generator.get());
+        }
+        return result;
+    }
+
+    private String phrase(String[] words, int length) {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (int i = 0; i < length; i++) {
+            joiner.add(pick(words));
+        }
+        return capitalize(joiner.toString());
+    }
+
+    private String pick(String[] words) {
+        double skew = random.nextDouble();
+        return words[(int) (skew * skew * words.length)];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String word(int index) {
+        StringBuilder builder = new StringBuilder();
+        int value = index + SYLLABLES.length;
+        while (value > 0) {
+            builder.append(SYLLABLES[value % SYLLABLES.length]);
+            value /= SYLLABLES.length;
+        }
+        return builder.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
@@ -0,0 +1,124 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.config.SearchProperties;
+import ru.yandex.practicum.filmorate.dto.SuggestionDto;
+import ru.yandex.practicum.filmorate.event.DirectorSavedEvent;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.DirectorRepository;
+import ru.yandex.practicum.filmorate.storage.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.FilmStatsRepository;
+import ru.yandex.practicum.filmorate.storage.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.mappers.*;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmRepository.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        DirectorRepository.class, DirectorRowMapper.class, FilmStatsRepository.class, FilmStatsRowMapper.class})
+class FilmSuggestIndexTest {
+    private final FilmRepository filmRepository;
+    private final DirectorRepository directorRepository;
+    private final GenreRepository genreRepository;
+    private final FilmStatsRepository filmStatsRepository;
+
+    @Test
+    void suggest_MatchesWordPrefixesOrderedByRate() {
+        Director wachowski = directorRepository.create(new Director(null, "Lana Wachowski"));
+        Director nolan = directorRepository.create(new Director(null, "Christopher Nolan"));
+        Film matrix = createFilm("The Matrix", wachowski);
+        Film reloaded = createFilm("Matrix Reloaded", wachowski);
+        Film memento = createFilm("Memento", nolan);
+        createFilm("Format", nolan);
+
+        PopularityIndex popularityIndex = createPopularityIndex();
+        like(popularityIndex, matrix, 9.0);
+        like(popularityIndex, reloaded, 5.0);
+        like(popularityIndex, memento, 7.0);
+
+        for (int scanLimit : List.of(512, 1)) {
+            SearchProperties properties = new SearchProperties();
+            properties.setSuggestScanLimit(scanLimit);
+            FilmSuggestIndex index = new FilmSuggestIndex(filmRepository, directorRepository,
+                    popularityIndex, properties);
+            index.load();
+
+            assertThat(texts(index.suggest("MAT", 10))).as("scan limit %d", scanLimit)
+                    .containsExactly("The Matrix", "Matrix Reloaded");
+            assertThat(texts(index.suggest("m", 10))).as("scan limit %d", scanLimit)
+                    .containsExactly("The Matrix", "Memento", "Matrix Reloaded");
+            assertThat(texts(index.suggest("m", 2))).as("scan limit %d", scanLimit)
+                    .containsExactly("The Matrix", "Memento");
+            assertThat(index.suggest("nol", 10)).as("scan limit %d", scanLimit)
+                    .containsExactly(new SuggestionDto(SuggestionDto.Type.DIRECTOR, nolan.getId(),
+                            "Christopher Nolan", 7.0));
+            assertThat(index.suggest("rix", 10)).as("scan limit %d", scanLimit).isEmpty();
+            assertThat(index.suggest("  ", 10)).as("scan limit %d", scanLimit).isEmpty();
+        }
+    }
+
+    @Test
+    void suggest_FollowsFilmAndDirectorChanges() {
+        Director nolan = directorRepository.create(new Director(null, "Christopher Nolan"));
+        Film memento = createFilm("Memento", nolan);
+        Film inception = createFilm("Inception", nolan);
+        PopularityIndex popularityIndex = createPopularityIndex();
+        FilmSuggestIndex index = new FilmSuggestIndex(filmRepository, directorRepository,
+                popularityIndex, new SearchProperties());
+        index.load();
+
+        inception.setName("Interstellar");
+        index.onFilmSaved(new FilmSavedEvent(inception));
+        index.onFilmDeleted(new FilmDeletedEvent(memento.getId()));
+        index.onDirectorSaved(new DirectorSavedEvent(new Director(nolan.getId(), "Jonathan Nolan")));
+
+        assertThat(index.suggest("inc", 10)).isEmpty();
+        assertThat(texts(index.suggest("inter", 10))).containsExactly("Interstellar");
+        assertThat(index.suggest("mem", 10)).isEmpty();
+        assertThat(index.suggest("chr", 10)).isEmpty();
+        assertThat(texts(index.suggest("jon", 10))).containsExactly("Jonathan Nolan");
+    }
+
+    private PopularityIndex createPopularityIndex() {
+        PopularityIndex popularityIndex = new PopularityIndex(filmRepository, genreRepository, filmStatsRepository);
+        popularityIndex.load();
+        return popularityIndex;
+    }
+
+    private static void like(PopularityIndex popularityIndex, Film film, double mark) {
+        popularityIndex.onLikeChanged(new LikeChangedEvent(film.getId(), 1L, mark, null));
+    }
+
+    private static List<String> texts(List<SuggestionDto> suggestions) {
+        return suggestions.stream().map(SuggestionDto::getText).toList();
+    }
+
+    private Film createFilm(String name, Director... directors) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(name + " description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setMpaRating(new MpaRating(1L, "G"));
+        film.setGenres(new HashSet<>());
+        film.setDirectors(new HashSet<>(List.of(directors)));
+        film.setLikes(new HashSet<>());
+        return filmRepository.create(film);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FriendshipRepository;
+import ru.yandex.practicum.filmorate.storage.UserRepository;
+import ru.yandex.practicum.filmorate.storage.mappers.FriendshipRowMapper;
+import ru.yandex.practicum.filmorate.storage.mappers.UserRowMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FriendshipRepository.class, FriendshipRowMapper.class, UserRepository.class, UserRowMapper.class})
+class FriendGraphTest {
+    private final FriendshipRepository friendshipRepository;
+    private final UserRepository userRepository;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            userIds.add(userRepository.create(new User(null, "graph" + i + "@example.com", "Graph " + i,
+                    "graph" + i, LocalDate.of(2000, 1, 1))).getId());
+        }
+    }
+
+    @Test
+    void findFriends_PagesLoadedFriendsAndFollowsChanges() {
+        Long owner = userIds.get(0);
+        Long other = userIds.get(1);
+        for (Long friend : userIds.subList(2, 5)) {
+            friendshipRepository.addFriend(friend, owner);
+        }
+        friendshipRepository.addFriend(userIds.get(3), other);
+
+        FriendGraph graph = new FriendGraph(friendshipRepository);
+        graph.load();
+
+        assertThat(graph.countFriends(owner)).isEqualTo(3);
+        assertThat(graph.findFriends(owner, 0, 2)).containsExactly(userIds.get(2), userIds.get(3));
+        assertThat(graph.findFriends(owner, userIds.get(3), 2)).containsExactly(userIds.get(4));
+        assertThat(graph.findCommonFriends(owner, other)).containsExactly(userIds.get(3));
+
+        graph.onFriendshipChanged(new FriendshipChangedEvent(other, owner, true));
+        graph.onFriendshipChanged(new FriendshipChangedEvent(userIds.get(2), owner, false));
+        assertThat(graph.findFriends(owner, 0, 10)).containsExactly(other, userIds.get(3), userIds.get(4));
+
+        graph.onUserDeleted(new UserDeletedEvent(userIds.get(3)));
+        assertThat(graph.findFriends(owner, 0, 10)).containsExactly(other, userIds.get(4));
+        assertThat(graph.countFriends(other)).isZero();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MinHashIndexTest {
+    private static final int CLUSTERS = 40;
+    private static final int USERS_PER_CLUSTER = 15;
+    private static final int NEAREST = 10;
+
+    @Test
+    void findCandidates_RecallsExactNearestUsersFromSmallCandidateSet() {
+        Map<Long, Map<Long, Double>> userMarks = generateMarks(new Random(7));
+        MinHashIndex index = new MinHashIndex(null, new RecommendationProperties());
+        index.reset(userMarks);
+
+        long found = 0;
+        long expected = 0;
+        long candidates = 0;
+        for (Long userId : userMarks.keySet()) {
+            Set<Long> lshCandidates = index.findCandidates(userId);
+            List<Long> exact = exactNearest(userId, userMarks);
+            found += exact.stream().filter(lshCandidates::contains).count();
+            expected += exact.size();
+            candidates += lshCandidates.size();
+        }
+        double recall = (double) found / expected;
+        double candidateShare = (double) candidates / userMarks.size() / userMarks.size();
+
+        assertThat(recall).isGreaterThanOrEqualTo(0.9);
+        assertThat(candidateShare).isLessThan(0.1);
+    }
+
+    @Test
+    void onMarkChanged_KeepsSignaturesEqualToFreshIndex() {
+        Map<Long, Map<Long, Double>> userMarks = generateMarks(new Random(11));
+        MinHashIndex index = new MinHashIndex(null, new RecommendationProperties());
+        index.reset(userMarks);
+
+        Random random = new Random(13);
+        for (int i = 0; i < 500; i++) {
+            long userId = 1 + random.nextInt(userMarks.size());
+            Map<Long, Double> marks = userMarks.get(userId);
+            long filmId = 1 + random.nextInt(1000);
+            Double previousMark = marks.get(filmId);
+            Double mark = previousMark == null ? 5.0 : null;
+            if (mark == null) {
+                marks.remove(filmId);
+            } else {
+                marks.put(filmId, mark);
+            }
+            index.onMarkChanged(userId, filmId, previousMark, mark, marks);
+        }
+        MinHashIndex fresh = new MinHashIndex(null, new RecommendationProperties());
+        fresh.reset(userMarks);
+
+        for (Long userId : userMarks.keySet()) {
+            assertThat(index.findCandidates(userId)).isEqualTo(fresh.findCandidates(userId));
+        }
+    }
+
+    private static Map<Long, Map<Long, Double>> generateMarks(Random random) {
+        Map<Long, Map<Long, Double>> userMarks = new HashMap<>();
+        long userId = 1;
+        for (int cluster = 0; cluster < CLUSTERS; cluster++) {
+            for (int user = 0; user < USERS_PER_CLUSTER; user++) {
+                Map<Long, Double> marks = new HashMap<>();
+                for (int film = 0; film < 30; film++) {
+                    if (random.nextDouble() < 0.8) {
+                        marks.put((long) cluster * 30 + film + 1, 1.0 + random.nextInt(10));
+                    }
+                }
+                for (int noise = 0; noise < 3; noise++) {
+                    marks.put(1L + random.nextInt(CLUSTERS * 30), 1.0 + random.nextInt(10));
+                }
+                userMarks.put(userId++, marks);
+            }
+        }
+        return userMarks;
+    }
+
+    private static List<Long> exactNearest(Long userId, Map<Long, Map<Long, Double>> userMarks) {
+        Set<Long> films = userMarks.get(userId).keySet();
+        return userMarks.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(userId))
+                .sorted(Comparator.comparingDouble(
+                        (Map.Entry<Long, Map<Long, Double>> entry) -> -jaccard(films, entry.getValue().keySet())))
+                .limit(NEAREST)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static double jaccard(Set<Long> left, Set<Long> right) {
+        long intersection = left.stream().filter(right::contains).count();
+        return (double) intersection / (left.size() + right.size() - intersection);
+    }
+}
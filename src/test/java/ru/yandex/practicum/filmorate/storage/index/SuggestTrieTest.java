@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestTrieTest {
+
+    @Test
+    void find_SplitsAndMergesEdgesAsKeysComeAndGo() {
+        SuggestTrie trie = new SuggestTrie();
+        String matrix = "the matrix";
+        trie.add(matrix, 4, 1L);
+        trie.add("matador", 0, 2L);
+        trie.add("memento", 0, 3L);
+        trie.add(matrix, 0, 1L);
+
+        assertThat(trie.find("mat", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(trie.find("m", 10)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(trie.find("matr", 10)).containsExactly(1L);
+        assertThat(trie.find("max", 10)).isEmpty();
+        assertThat(trie.find("m", 2)).isNull();
+        assertThat(trie.size()).isEqualTo(4);
+
+        trie.remove("matador", 0, 2L);
+        trie.remove("matador", 0, 2L);
+        assertThat(trie.find("mat", 10)).containsExactly(1L);
+        assertThat(trie.find("m", 2)).containsExactlyInAnyOrder(1L, 3L);
+
+        trie.remove(matrix, 4, 1L);
+        trie.remove("memento", 0, 3L);
+        trie.remove(matrix, 0, 1L);
+        assertThat(trie.find("m", 10)).isEmpty();
+        assertThat(trie.size()).isZero();
+        assertThat(trie.nodeCount()).isEqualTo(1);
+    }
+}